@@ -0,0 +1,33 @@
+package qslv.reservefunds.rest;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * reservefunds.logging.ringbuffer.full counts log events that found the async logger ring buffer full,
+ * tagged outcome dropped or blocked (the request thread waited for space).
+ */
+@Component
+public class AsyncLoggingMetrics {
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void init() {
+		FunctionCounter.builder("reservefunds.logging.ringbuffer.full", RingBufferFullPolicy.DROPPED, adder -> adder.sum())
+				.tag("outcome", "dropped")
+				.register(meterRegistry);
+		FunctionCounter.builder("reservefunds.logging.ringbuffer.full", RingBufferFullPolicy.BLOCKED, adder -> adder.sum())
+				.tag("outcome", "blocked")
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,42 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.util.PropertiesUtil;
+
+/**
+ * What a request thread does when the async logger ring buffer is full. With qslv.logging.queue-full=drop
+ * (the default) events at qslv.logging.discard-threshold or below are dropped and more severe ones wait
+ * for space; with block every event waits. The background writer logging for itself always writes
+ * synchronously, since waiting on its own buffer would deadlock. Both settings are read from system
+ * properties or log4j2.component.properties; counts are published by AsyncLoggingMetrics.
+ */
+public class RingBufferFullPolicy implements AsyncQueueFullPolicy {
+	static final LongAdder DROPPED = new LongAdder();
+	static final LongAdder BLOCKED = new LongAdder();
+
+	private final boolean block;
+	private final Level threshold;
+
+	public RingBufferFullPolicy() {
+		PropertiesUtil properties = PropertiesUtil.getProperties();
+		block = "block".equalsIgnoreCase(properties.getStringProperty("qslv.logging.queue-full", "drop"));
+		threshold = Level.toLevel(properties.getStringProperty("qslv.logging.discard-threshold", "INFO"), Level.INFO);
+	}
+
+	@Override
+	public EventRoute getRoute(long backgroundThreadId, Level level) {
+		if (Thread.currentThread().getId() == backgroundThreadId) {
+			return EventRoute.SYNCHRONOUS;
+		}
+		if (false == block && level.isLessSpecificThan(threshold)) {
+			DROPPED.increment();
+			return EventRoute.DISCARD;
+		}
+		BLOCKED.increment();
+		return EventRoute.ENQUEUE;
+	}
+}
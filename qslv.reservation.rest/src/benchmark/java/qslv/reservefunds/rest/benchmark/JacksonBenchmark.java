@@ -0,0 +1,101 @@
+package qslv.reservefunds.rest.benchmark;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import qslv.common.TimedResponse;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.transaction.resource.TransactionResource;
+
+/**
+ * Jackson (de)serialization of the ReserveFunds wire types, using readers/writers
+ * resolved once as the Spring message converters do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+	ObjectReader requestReader;
+	ObjectWriter requestWriter;
+	ObjectReader responseReader;
+	ObjectWriter responseWriter;
+
+	ReserveFundsRequest request;
+	TimedResponse<ReserveFundsResponse> response;
+	byte[] requestJson;
+	byte[] responseJson;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		TypeReference<TimedResponse<ReserveFundsResponse>> responseType = new TypeReference<TimedResponse<ReserveFundsResponse>>() {};
+		requestReader = mapper.readerFor(ReserveFundsRequest.class);
+		requestWriter = mapper.writerFor(ReserveFundsRequest.class);
+		responseReader = mapper.readerFor(responseType);
+		responseWriter = mapper.writerFor(responseType);
+
+		request = ReserveFundsBenchmark.request("1234HHHH1234", null, true);
+
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionUuid(UUID.randomUUID());
+		transaction.setReservationUuid(UUID.randomUUID());
+		transaction.setRequestUuid(request.getRequestUUID());
+		transaction.setAccountNumber("1234HHHH1234");
+		transaction.setRunningBalanceAmount(99999L);
+		transaction.setTransactionAmount(-27384L);
+		transaction.setTransactionMetaDataJson(request.getTransactionMetaDataJSON());
+		transaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		ReserveFundsResponse payload = new ReserveFundsResponse();
+		payload.setStatus(ReserveFundsResponse.SUCCESS);
+		payload.setTransactions(new LinkedList<TransactionResource>());
+		payload.getTransactions().add(transaction);
+		response = new TimedResponse<ReserveFundsResponse>();
+		response.setServiceTimeElapsed(345890L);
+		response.setPayload(payload);
+
+		requestJson = requestWriter.writeValueAsBytes(request);
+		responseJson = responseWriter.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public ReserveFundsRequest deserializeRequest() throws IOException {
+		return requestReader.readValue(requestJson);
+	}
+
+	@Benchmark
+	public byte[] serializeRequest() throws IOException {
+		return requestWriter.writeValueAsBytes(request);
+	}
+
+	@Benchmark
+	public TimedResponse<ReserveFundsResponse> deserializeResponse() throws IOException {
+		return responseReader.readValue(responseJson);
+	}
+
+	@Benchmark
+	public byte[] serializeResponse() throws IOException {
+		return responseWriter.writeValueAsBytes(response);
+	}
+}
@@ -0,0 +1,158 @@
+package qslv.reservefunds.rest.benchmark;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.rest.ConfigProperties;
+import qslv.reservefunds.rest.RejectedRequestException;
+import qslv.reservefunds.rest.ReserveFundsController;
+import qslv.reservefunds.rest.ReserveFundsService;
+
+/**
+ * Reject-heavy traffic, as during card testing. mixedTraffic sends rejectPercent of its requests
+ * for an account not in good standing and renders them as ReserveFundsController does;
+ * mixedTrafficStackTrace is its baseline at the same mix, the rejection thrown from the lookup as a
+ * plain ResponseStatusException with its stack trace and rendered as the default error response.
+ * stacklessReject throws a new stackless exception from a shared Rejection and renders its body;
+ * stackTraceReject is the cost of a rejection before RejectedRequestException: a new
+ * ResponseStatusException with its stack trace and the whole body serialized per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectBenchmark {
+	private static final String GOOD_ACCOUNT = "1234HHHH1234";
+	private static final String CLOSED_ACCOUNT = "9012CCCC9012";
+	private static final String REASON = "Account is in an invalid state.";
+	private static final String PATH = "/ReserveFunds";
+
+	@Param({ "0", "50", "90", "99" })
+	public int rejectPercent;
+
+	ReserveFundsController controller = new ReserveFundsController();
+	ReserveFundsService service = new ReserveFundsService();
+	ReserveFundsController baselineController = new ReserveFundsController();
+	ReserveFundsService baselineService = new ReserveFundsService();
+	HashMap<String, String> headers = new HashMap<String, String>();
+	ObjectMapper mapper = new ObjectMapper();
+	RejectedRequestException.Rejection rejection = new RejectedRequestException.Rejection(HttpStatus.UNPROCESSABLE_ENTITY, REASON);
+	MockHttpServletRequest servletRequest = new MockHttpServletRequest("POST", PATH);
+
+	ReserveFundsRequest[] traffic = new ReserveFundsRequest[100];
+	int next;
+
+	@Setup
+	public void setup() {
+		StubJdbcDao jdbcDao = new StubJdbcDao();
+		jdbcDao.addAccount(GOOD_ACCOUNT, "EF");
+		jdbcDao.addAccount(CLOSED_ACCOUNT, "CL");
+
+		service.setDao(jdbcDao);
+		service.setTrDao(new StubTransactionDao());
+		controller.setService(service);
+		controller.setConfig(new ConfigProperties());
+
+		StubJdbcDao baselineDao = new StubJdbcDao() {
+			@Override
+			public Account getAccount(String accountNumber) {
+				if (CLOSED_ACCOUNT.equals(accountNumber)) {
+					throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, REASON);
+				}
+				return super.getAccount(accountNumber);
+			}
+		};
+		baselineDao.addAccount(GOOD_ACCOUNT, "EF");
+		baselineService.setDao(baselineDao);
+		baselineService.setTrDao(new StubTransactionDao());
+		baselineController.setService(baselineService);
+		baselineController.setConfig(new ConfigProperties());
+
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+		headers.put(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+
+		ReserveFundsRequest good = ReserveFundsBenchmark.request(GOOD_ACCOUNT, null, false);
+		ReserveFundsRequest closed = ReserveFundsBenchmark.request(CLOSED_ACCOUNT, null, false);
+		for (int i = 0; i < traffic.length; i++) {
+			// spread the rejects out rather than running them back to back.
+			traffic[i] = (i * rejectPercent) % 100 < rejectPercent ? closed : good;
+		}
+	}
+
+	@Benchmark
+	public Object mixedTraffic() {
+		ReserveFundsRequest request = traffic[next];
+		next = next == traffic.length - 1 ? 0 : next + 1;
+		try {
+			return controller.postReserveFunds(headers, request);
+		} catch (RejectedRequestException ex) {
+			return controller.rejected(ex, servletRequest);
+		}
+	}
+
+	@Benchmark
+	public Object mixedTrafficStackTrace() throws JsonProcessingException {
+		ReserveFundsRequest request = traffic[next];
+		next = next == traffic.length - 1 ? 0 : next + 1;
+		try {
+			return baselineController.postReserveFunds(headers, request);
+		} catch (ResponseStatusException ex) {
+			return defaultErrorBody(ex);
+		}
+	}
+
+	@Benchmark
+	public byte[] stacklessReject() {
+		try {
+			throw rejection.exception();
+		} catch (RejectedRequestException ex) {
+			return ex.getBody(PATH);
+		}
+	}
+
+	@Benchmark
+	public byte[] stackTraceReject() throws JsonProcessingException {
+		try {
+			throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, String.format(REASON));
+		} catch (ResponseStatusException ex) {
+			return defaultErrorBody(ex);
+		}
+	}
+
+	private byte[] defaultErrorBody(ResponseStatusException ex) throws JsonProcessingException {
+		LinkedHashMap<String, Object> attributes = new LinkedHashMap<String, Object>();
+		attributes.put("timestamp", new Date());
+		attributes.put("status", ex.getStatus().value());
+		attributes.put("error", ex.getStatus().getReasonPhrase());
+		attributes.put("message", ex.getReason());
+		attributes.put("path", PATH);
+		return mapper.writeValueAsBytes(attributes);
+	}
+}
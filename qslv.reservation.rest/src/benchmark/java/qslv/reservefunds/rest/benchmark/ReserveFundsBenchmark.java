@@ -0,0 +1,149 @@
+package qslv.reservefunds.rest.benchmark;
+
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.server.ResponseStatusException;
+
+import qslv.common.TimedResponse;
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.reservefunds.rest.ConfigProperties;
+import qslv.reservefunds.rest.ReserveFundsController;
+import qslv.reservefunds.rest.ReserveFundsService;
+
+/**
+ * Controller validation and ReserveFundsService paths against in-memory DAOs.
+ * overdraftInstructions is the number of overdraft accounts walked on the insufficient funds path;
+ * all but the last decline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReserveFundsBenchmark {
+	private static final String GOOD_ACCOUNT = "1234HHHH1234";
+	private static final String NSF_ACCOUNT = "5678NNNN5678";
+	private static final String CLOSED_ACCOUNT = "9012CCCC9012";
+	private static final String DEBIT_CARD = "4321DDDD4321";
+
+	@Param({ "0", "1", "4" })
+	public int overdraftInstructions;
+
+	ReserveFundsController controller = new ReserveFundsController();
+	ReserveFundsService service = new ReserveFundsService();
+	HashMap<String, String> headers = new HashMap<String, String>();
+	HashMap<String, String> badHeaders = new HashMap<String, String>();
+
+	ReserveFundsRequest successRequest;
+	ReserveFundsRequest debitCardRequest;
+	ReserveFundsRequest nsfRequest;
+	ReserveFundsRequest invalidStatusRequest;
+
+	@Setup
+	public void setup() {
+		StubJdbcDao jdbcDao = new StubJdbcDao();
+		StubTransactionDao trDao = new StubTransactionDao();
+
+		Account good = jdbcDao.addAccount(GOOD_ACCOUNT, "EF");
+		jdbcDao.addAccount(NSF_ACCOUNT, "EF");
+		jdbcDao.addAccount(CLOSED_ACCOUNT, "CL");
+		jdbcDao.addDebitCard(DEBIT_CARD, "EF", good);
+		trDao.addDecliningAccount(NSF_ACCOUNT);
+		for (int i = 0; i < overdraftInstructions; i++) {
+			String overdraftAccount = "OD" + i;
+			jdbcDao.addOverdraftInstruction(NSF_ACCOUNT, jdbcDao.addAccount(overdraftAccount, "EF"));
+			if (i < overdraftInstructions - 1) {
+				trDao.addDecliningAccount(overdraftAccount);
+			}
+		}
+		// JdbcDao treats an account without instructions as an error, so N=0 is one ineligible instruction.
+		if (overdraftInstructions == 0) {
+			jdbcDao.addOverdraftInstruction(NSF_ACCOUNT, jdbcDao.addAccount("ODCL", "CL"));
+		}
+
+		service.setDao(jdbcDao);
+		service.setTrDao(trDao);
+		controller.setService(service);
+		controller.setConfig(new ConfigProperties());
+
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+		headers.put(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+		badHeaders.putAll(headers);
+		badHeaders.remove(TraceableRequest.CORRELATION_ID);
+
+		successRequest = request(GOOD_ACCOUNT, null, false);
+		debitCardRequest = request(null, DEBIT_CARD, false);
+		nsfRequest = request(NSF_ACCOUNT, null, true);
+		invalidStatusRequest = request(CLOSED_ACCOUNT, null, false);
+	}
+
+	static ReserveFundsRequest request(String accountNumber, String debitCardNumber, boolean protect) {
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber(accountNumber);
+		request.setDebitCardNumber(debitCardNumber);
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{\"merchant\":\"benchmark\"}");
+		request.setProtectAgainstOverdraft(protect);
+		return request;
+	}
+
+	@Benchmark
+	public TimedResponse<ReserveFundsResponse> controllerSuccess() {
+		return controller.postReserveFunds(headers, successRequest);
+	}
+
+	@Benchmark
+	public Object controllerInvalidHeaders() {
+		try {
+			return controller.postReserveFunds(badHeaders, successRequest);
+		} catch (ResponseStatusException ex) {
+			return ex;
+		}
+	}
+
+	@Benchmark
+	public ReserveFundsResponse serviceSuccess() {
+		return service.reserveFunds(headers, successRequest);
+	}
+
+	@Benchmark
+	public ReserveFundsResponse serviceDebitCardSuccess() {
+		// the service rewrites the account number from the debit card lookup.
+		debitCardRequest.setAccountNumber(null);
+		return service.reserveFunds(headers, debitCardRequest);
+	}
+
+	@Benchmark
+	public ReserveFundsResponse serviceInsufficientFunds() {
+		return service.reserveFunds(headers, nsfRequest);
+	}
+
+	@Benchmark
+	public Object serviceInvalidStatus() {
+		try {
+			return service.reserveFunds(headers, invalidStatusRequest);
+		} catch (ResponseStatusException ex) {
+			return ex;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package qslv.reservefunds.rest.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import qslv.data.Account;
+import qslv.data.DebitCard;
+import qslv.data.OverdraftInstruction;
+import qslv.reservefunds.rest.JdbcDao;
+
+/**
+ * In-memory JdbcDao for benchmarks. Returns pre-built rows so the measurement covers the
+ * service logic and not AccountDB.
+ */
+public class StubJdbcDao extends JdbcDao {
+	private final HashMap<String, DebitCard> debitCards = new HashMap<String, DebitCard>();
+	private final HashMap<String, Account> accounts = new HashMap<String, Account>();
+	private final HashMap<String, List<OverdraftInstruction>> overdraftInstructions = new HashMap<String, List<OverdraftInstruction>>();
+
+	public Account addAccount(String accountNumber, String lifeCycleStatus) {
+		Account account = new Account();
+		account.setAccountNumber(accountNumber);
+		account.setAccountLifeCycleStatus(lifeCycleStatus);
+		accounts.put(accountNumber, account);
+		return account;
+	}
+
+	public DebitCard addDebitCard(String debitCardNumber, String lifeCycleStatus, Account account) {
+		DebitCard debitCard = new DebitCard();
+		debitCard.setDebitCardNumber(debitCardNumber);
+		debitCard.setDebitCardLifeCycleStatus(lifeCycleStatus);
+		debitCard.setAccount(account);
+		debitCards.put(debitCardNumber, debitCard);
+		return debitCard;
+	}
+
+	public void addOverdraftInstruction(String accountNumber, Account overdraftAccount) {
+		OverdraftInstruction od = new OverdraftInstruction();
+		od.setOverdraftAccount(overdraftAccount);
+		od.setInstructionLifecycleStatus("EF");
+		od.setEffectiveStart(LocalDateTime.now().minusYears(1));
+		od.setEffectiveEnd(LocalDateTime.now().plusYears(1));
+		overdraftInstructions.computeIfAbsent(accountNumber, key -> new ArrayList<OverdraftInstruction>()).add(od);
+	}
+
+	@Override
+	public DebitCard getDebitCardAndAccount(String debitCardNumber) {
+		DebitCard debitCard = debitCards.get(debitCardNumber);
+		if (debitCard == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 (!= 1) account - debit_card rows returned.");
+		}
+		return debitCard;
+	}
+
+	@Override
+	public Account getAccount(String accountNumber) {
+		Account account = accounts.get(accountNumber);
+		if (account == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 (!= 1) account_balance rows returned.");
+		}
+		return account;
+	}
+
+	@Override
+	public List<OverdraftInstruction> getOverdraftInstructions(String accountNumber) {
+		List<OverdraftInstruction> instructions = overdraftInstructions.get(accountNumber);
+		if (instructions == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 overdraft_instruction rows returned.");
+		}
+		return instructions;
+	}
+}
@@ -0,0 +1,45 @@
+package qslv.reservefunds.rest.benchmark;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import qslv.reservefunds.rest.TransactionDao;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+
+/**
+ * In-memory TransactionDao for benchmarks. Reservations against a declining account return
+ * INSUFFICIENT_FUNDS, all others SUCCESS. Responses are pre-built.
+ */
+public class StubTransactionDao extends TransactionDao {
+	private final HashSet<String> decliningAccounts = new HashSet<String>();
+	private final ReservationResponse success;
+	private final ReservationResponse insufficientFunds;
+
+	public StubTransactionDao() {
+		TransactionResource reservation = new TransactionResource();
+		reservation.setTransactionTypeCode(TransactionResource.RESERVATION);
+		success = new ReservationResponse(ReservationResponse.SUCCESS, reservation);
+
+		TransactionResource rejected = new TransactionResource();
+		rejected.setTransactionTypeCode(TransactionResource.REJECTED_TRANSACTION);
+		insufficientFunds = new ReservationResponse(ReservationResponse.INSUFFICIENT_FUNDS, rejected);
+	}
+
+	public void addDecliningAccount(String accountNumber) {
+		decliningAccounts.add(accountNumber);
+	}
+
+	@Override
+	public ReservationResponse recordReservation(Map<String, String> callingHeaders, ReservationRequest request) {
+		return decliningAccounts.contains(request.getAccountNumber()) ? insufficientFunds : success;
+	}
+
+	@Override
+	public CompletableFuture<ReservationResponse> recordReservationAsync(Map<String, String> callingHeaders,
+			ReservationRequest request) {
+		return CompletableFuture.completedFuture(recordReservation(callingHeaders, request));
+	}
+}
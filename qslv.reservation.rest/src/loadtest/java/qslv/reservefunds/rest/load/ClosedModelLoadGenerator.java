@@ -0,0 +1,96 @@
+package qslv.reservefunds.rest.load;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Recorder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Closed-model load generator. Keeps exactly concurrency requests outstanding: each simulated client
+ * sends its next request as soon as the previous one completes. Used to hold the server at a fixed
+ * number of concurrent requests, which is the variable that separates thread-per-request models.
+ * Clients are started evenly over rampUp so the server's accept queue is not flooded.
+ */
+public class ClosedModelLoadGenerator {
+	private final WebClient webClient;
+	private final HttpHeaders headers;
+
+	public ClosedModelLoadGenerator(String url, HttpHeaders headers, int maxConnections) {
+		this.headers = headers;
+		ConnectionProvider provider = ConnectionProvider.fixed("loadgen-closed", maxConnections, 60000L);
+		this.webClient = WebClient.builder()
+				.baseUrl(url)
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+				.build();
+	}
+
+	public OpenModelLoadGenerator.Result run(int concurrency, Duration rampUp, Duration duration, Supplier<Object> requests)
+			throws InterruptedException {
+		Run run = new Run(System.nanoTime() + rampUp.toNanos() + duration.toNanos(), concurrency, requests);
+
+		long start = System.nanoTime();
+		long spacing = rampUp.toNanos() / concurrency;
+		for (int client = 0; client < concurrency; client++) {
+			LockSupport.parkNanos(start + client * spacing - System.nanoTime());
+			send(run);
+		}
+		run.clients.await(rampUp.getSeconds() + duration.getSeconds() + 60L, TimeUnit.SECONDS);
+		long elapsed = System.nanoTime() - start;
+
+		long sent = run.sent.sum();
+		return new OpenModelLoadGenerator.Result(sent / (elapsed / 1e9), sent, elapsed, run.recorder.getIntervalHistogram(),
+				run.ok.sum(), run.rejected.sum(), run.errors.sum(), run.clients.getCount(), concurrency);
+	}
+
+	private void send(Run run) {
+		if (System.nanoTime() - run.deadline >= 0) {
+			run.clients.countDown();
+			return;
+		}
+		run.sent.increment();
+		final long begin = System.nanoTime();
+		webClient.post()
+			.headers(h -> h.addAll(headers))
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(run.requests.get())
+			.exchange()
+			.flatMap(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+			.subscribe(status -> {
+				run.recorder.recordValue(System.nanoTime() - begin);
+				(status < 300 ? run.ok : status < 500 ? run.rejected : run.errors).increment();
+				send(run);
+			}, ex -> {
+				run.recorder.recordValue(System.nanoTime() - begin);
+				run.errors.increment();
+				send(run);
+			});
+	}
+
+	private static class Run {
+		final long deadline;
+		final CountDownLatch clients;
+		final Supplier<Object> requests;
+		final Recorder recorder = new Recorder(3);
+		final LongAdder sent = new LongAdder();
+		final LongAdder ok = new LongAdder();
+		final LongAdder rejected = new LongAdder();
+		final LongAdder errors = new LongAdder();
+
+		Run(long deadline, int concurrency, Supplier<Object> requests) {
+			this.deadline = deadline;
+			this.clients = new CountDownLatch(concurrency);
+			this.requests = requests;
+		}
+	}
+}
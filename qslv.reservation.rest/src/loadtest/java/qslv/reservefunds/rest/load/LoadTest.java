@@ -0,0 +1,142 @@
+package qslv.reservefunds.rest.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import qslv.common.TraceableRequest;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.rest.ReserveFundsApplication;
+
+/**
+ * Self-contained load test. Boots the application against an embedded PostgreSQL seeded with
+ * loadtest.rows accounts/debit cards, points qslv.reservation-url at StubTransactionService and
+ * sweeps /ReserveFunds over the offered rates in loadtest.rates with OpenModelLoadGenerator.
+ * Writes HDR percentile distributions and a throughput-versus-concurrency CSV to loadtest.output,
+ * in a subdirectory named for loadtest.profiles (servlet when empty) so stacks can be compared run for run.
+ */
+public class LoadTest {
+	private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+	public static void main(String[] args) throws Exception {
+		int rows = Integer.getInteger("loadtest.rows", 1000000);
+		String[] rates = System.getProperty("loadtest.rates", "250,500,1000,2000,4000").split(",");
+		Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 15L));
+		Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30L));
+		// loadtest.profiles=reactive runs the same sweep against the WebFlux/R2DBC stack.
+		String profiles = System.getProperty("loadtest.profiles", "").trim();
+		File output = new File(System.getProperty("loadtest.output", "target/loadtest"), profiles.isEmpty() ? "servlet" : profiles);
+		output.mkdirs();
+
+		try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+			seed(postgres.getPostgresDatabase(), rows);
+
+			StubTransactionService stub = new StubTransactionService(Long.getLong("loadtest.stubLatency", 5L),
+					Integer.getInteger("loadtest.nsfPercent", 10));
+			String reservationUrl = stub.start(Integer.getInteger("loadtest.stubThreads", 400));
+
+			// command line arguments, so they win over any application.properties on the test classpath.
+			String[] appArgs = Arrays.copyOf(args, args.length + 7);
+			appArgs[args.length] = "--server.port=0";
+			appArgs[args.length + 1] = "--logging.level.qslv=WARN";
+			appArgs[args.length + 2] = "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres");
+			appArgs[args.length + 3] = "--spring.datasource.username=postgres";
+			appArgs[args.length + 4] = "--qslv.r2dbc-url=r2dbc:postgresql://postgres@localhost:" + postgres.getPort() + "/postgres";
+			appArgs[args.length + 5] = "--qslv.reservation-url=" + reservationUrl;
+			appArgs[args.length + 6] = "--spring.profiles.active=" + profiles;
+			ConfigurableApplicationContext app = new SpringApplicationBuilder(ReserveFundsApplication.class).run(appArgs);
+			try {
+				String url = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/ReserveFunds";
+				sweep(url, rows, rates, warmup, duration, output);
+			} finally {
+				app.close();
+				stub.stop();
+			}
+		}
+	}
+
+	private static void sweep(String url, int rows, String[] rates, Duration warmup, Duration duration, File output)
+			throws InterruptedException, IOException {
+		OpenModelLoadGenerator generator = new OpenModelLoadGenerator(url, headers(), Integer.getInteger("loadtest.connections", 2000));
+
+		log.warn("Warm up {} at {} rps", warmup, rates[0]);
+		generator.run(Double.parseDouble(rates[0].trim()), warmup, () -> randomRequest(rows));
+
+		try (PrintWriter curve = new PrintWriter(new File(output, "throughput-concurrency.csv"), "UTF-8")) {
+			curve.println(OpenModelLoadGenerator.Result.csvHeader());
+			for (String rate : rates) {
+				OpenModelLoadGenerator.Result result = generator.run(Double.parseDouble(rate.trim()), duration,
+						() -> randomRequest(rows));
+				curve.println(result.csv());
+				curve.flush();
+				log.warn("{}", OpenModelLoadGenerator.Result.csvHeader());
+				log.warn("{}", result.csv());
+				try (PrintStream hgrm = new PrintStream(new FileOutputStream(new File(output, "latency-" + rate.trim() + "rps.hgrm")))) {
+					result.latency.outputPercentileDistribution(hgrm, 1e6);
+				}
+			}
+		}
+	}
+
+	static HttpHeaders headers() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(TraceableRequest.AIT_ID, "12345");
+		headers.add(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.add(TraceableRequest.CORRELATION_ID, "loadtest");
+		headers.add(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+		return headers;
+	}
+
+	static ReserveFundsRequest randomRequest(int rows) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String suffix = String.format("%010d", random.nextInt(rows) + 1);
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		if (random.nextBoolean()) {
+			request.setDebitCardNumber("D" + suffix);
+		} else {
+			request.setAccountNumber("A" + suffix);
+		}
+		request.setTransactionAmount(-2500);
+		request.setTransactionMetaDataJSON("{\"merchant\":\"loadtest\"}");
+		request.setProtectAgainstOverdraft(true);
+		return request;
+	}
+
+	static void seed(DataSource dataSource, int rows) throws IOException, SQLException {
+		long start = System.currentTimeMillis();
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute(resource("/loadtest/schema.sql"));
+			statement.execute(resource("/loadtest/seed.sql").replace("${rows}", Integer.toString(rows)));
+		}
+		log.warn("Seeded {} accounts in {} ms", rows, System.currentTimeMillis() - start);
+	}
+
+	private static String resource(String name) throws IOException {
+		try (InputStream in = LoadTest.class.getResourceAsStream(name);
+				Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+			return scanner.useDelimiter("\\A").next();
+		}
+	}
+}
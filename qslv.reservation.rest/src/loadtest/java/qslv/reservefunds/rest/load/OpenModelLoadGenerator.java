@@ -0,0 +1,152 @@
+package qslv.reservefunds.rest.load;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Open-model load generator. Requests are issued on a fixed schedule at the offered rate whether
+ * or not earlier requests have completed, and latency is measured from each request's intended
+ * start time, so queueing behind a slow server is counted rather than hidden (no coordinated omission).
+ * Requests still outstanding when the 60s drain ends are censored: each is recorded at its latency so
+ * far, a lower bound, and counted apart from errors.
+ */
+public class OpenModelLoadGenerator {
+	private final WebClient webClient;
+	private final HttpHeaders headers;
+
+	public OpenModelLoadGenerator(String url, HttpHeaders headers, int maxConnections) {
+		this.headers = headers;
+		ConnectionProvider provider = ConnectionProvider.fixed("loadgen", maxConnections, 60000L);
+		this.webClient = WebClient.builder()
+				.baseUrl(url)
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+				.build();
+	}
+
+	public Result run(double ratePerSecond, Duration duration, Supplier<Object> requests) throws InterruptedException {
+		final Recorder recorder = new Recorder(3);
+		final LongAdder ok = new LongAdder();
+		final LongAdder rejected = new LongAdder();
+		final LongAdder errors = new LongAdder();
+		final AtomicLong inFlight = new AtomicLong();
+		final AtomicLong maxInFlight = new AtomicLong();
+		// intended start of each request not yet completed, by sequence; whoever removes an entry records it.
+		final ConcurrentHashMap<Long, Long> outstanding = new ConcurrentHashMap<Long, Long>();
+
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		long durationNanos = duration.toNanos();
+		long start = System.nanoTime();
+		long sent = 0;
+
+		for (long intended = start; intended - start < durationNanos; intended = start + (++sent) * intervalNanos) {
+			long wait;
+			while ((wait = intended - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			final long intendedStart = intended;
+			final Long sequence = sent;
+			outstanding.put(sequence, intendedStart);
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			webClient.post()
+				.headers(h -> h.addAll(headers))
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(requests.get())
+				.exchange()
+				.flatMap(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+				.subscribe(status -> {
+					if (outstanding.remove(sequence) != null) {
+						recorder.recordValue(System.nanoTime() - intendedStart);
+						(status < 300 ? ok : status < 500 ? rejected : errors).increment();
+						inFlight.decrementAndGet();
+					}
+				}, ex -> {
+					if (outstanding.remove(sequence) != null) {
+						recorder.recordValue(System.nanoTime() - intendedStart);
+						errors.increment();
+						inFlight.decrementAndGet();
+					}
+				});
+		}
+
+		long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+			Thread.sleep(10);
+		}
+		long now = System.nanoTime();
+		long censored = 0;
+		for (Long sequence : outstanding.keySet()) {
+			Long intendedStart = outstanding.remove(sequence);
+			if (intendedStart != null) {
+				recorder.recordValue(now - intendedStart);
+				censored++;
+			}
+		}
+		long elapsed = now - start;
+		return new Result(ratePerSecond, sent, elapsed, recorder.getIntervalHistogram(),
+				ok.sum(), rejected.sum(), errors.sum(), censored, maxInFlight.get());
+	}
+
+	public static class Result {
+		public final double offeredRate;
+		public final long sent;
+		public final long elapsedNanos;
+		public final Histogram latency;
+		public final long ok;
+		public final long rejected;
+		public final long errors;
+		/** Requests still outstanding at the drain deadline; their latency is recorded as of the deadline. */
+		public final long censored;
+		public final long maxInFlight;
+
+		Result(double offeredRate, long sent, long elapsedNanos, Histogram latency, long ok, long rejected, long errors,
+				long censored, long maxInFlight) {
+			this.offeredRate = offeredRate;
+			this.sent = sent;
+			this.elapsedNanos = elapsedNanos;
+			this.latency = latency;
+			this.ok = ok;
+			this.rejected = rejected;
+			this.errors = errors;
+			this.censored = censored;
+			this.maxInFlight = maxInFlight;
+		}
+
+		public double throughput() {
+			return (ok + rejected) / (elapsedNanos / 1e9);
+		}
+
+		/** Mean requests in flight, by Little's law. */
+		public double meanConcurrency() {
+			return (sent / (elapsedNanos / 1e9)) * (latency.getMean() / 1e9);
+		}
+
+		public static String csvHeader() {
+			return "offered_rps,throughput_rps,mean_concurrency,max_in_flight,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,ok,rejected,errors,censored";
+		}
+
+		public String csv() {
+			return String.format("%.0f,%.1f,%.1f,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d,%d", offeredRate, throughput(),
+					meanConcurrency(), maxInFlight, millis(50.0), millis(90.0), millis(99.0), millis(99.9),
+					latency.getMaxValue() / 1e6, ok, rejected, errors, censored);
+		}
+
+		private double millis(double percentile) {
+			return latency.getValueAtPercentile(percentile) / 1e6;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package qslv.reservefunds.rest.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import qslv.common.TimedResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+
+/**
+ * Stand-in for the Transaction Service /Reservation endpoint. Answers after a fixed latency;
+ * accounts whose numeric suffix modulo 100 is below nsfPercent are declined.
+ */
+public class StubTransactionService {
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final long latencyMillis;
+	private final int nsfPercent;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	public StubTransactionService(long latencyMillis, int nsfPercent) {
+		this.latencyMillis = latencyMillis;
+		this.nsfPercent = nsfPercent;
+	}
+
+	public String start(int threads) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.createContext("/Reservation", this::reserve);
+		server.start();
+		return "http://localhost:" + server.getAddress().getPort() + "/Reservation";
+	}
+
+	public void stop() throws InterruptedException {
+		server.stop(0);
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	private void reserve(HttpExchange exchange) throws IOException {
+		long start = System.nanoTime();
+		ReservationRequest request;
+		try (InputStream in = exchange.getRequestBody()) {
+			request = mapper.readValue(in, ReservationRequest.class);
+		}
+		if (latencyMillis > 0) {
+			try {
+				Thread.sleep(latencyMillis);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		TransactionResource resource = new TransactionResource();
+		resource.setTransactionUuid(UUID.randomUUID());
+		resource.setReservationUuid(UUID.randomUUID());
+		resource.setRequestUuid(request.getRequestUuid());
+		resource.setAccountNumber(request.getAccountNumber());
+		resource.setDebitCardNumber(request.getDebitCardNumber());
+		resource.setTransactionAmount(request.getTransactionAmount());
+		resource.setTransactionMetaDataJson(request.getTransactionMetaDataJson());
+		resource.setInsertTimestamp(new Timestamp(System.currentTimeMillis()));
+		resource.setRunningBalanceAmount(99999L);
+
+		ReservationResponse payload;
+		if (declines(request.getAccountNumber())) {
+			resource.setTransactionTypeCode(TransactionResource.REJECTED_TRANSACTION);
+			payload = new ReservationResponse(ReservationResponse.INSUFFICIENT_FUNDS, resource);
+		} else {
+			resource.setTransactionTypeCode(TransactionResource.RESERVATION);
+			payload = new ReservationResponse(ReservationResponse.SUCCESS, resource);
+		}
+		TimedResponse<ReservationResponse> response = new TimedResponse<ReservationResponse>();
+		response.setPayload(payload);
+		response.setServiceTimeElapsed(System.nanoTime() - start);
+
+		byte[] body = mapper.writeValueAsBytes(response);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private boolean declines(String accountNumber) {
+		if (accountNumber == null || accountNumber.length() < 3) {
+			return false;
+		}
+		try {
+			return Integer.parseInt(accountNumber.substring(accountNumber.length() - 2)) < nsfPercent;
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package qslv.reservefunds.rest.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import qslv.reservefunds.rest.ReserveFundsApplication;
+import qslv.reservefunds.rest.VirtualThreads;
+
+/**
+ * Platform versus virtual thread comparison. Boots the application once per thread model
+ * (Tomcat worker pool of server.tomcat.max-threads, then qslv.virtual-threads-enabled) against
+ * the same seeded embedded PostgreSQL and StubTransactionService, and holds /ReserveFunds at each
+ * concurrency in loadtest.concurrency with ClosedModelLoadGenerator.
+ * Writes thread-model.csv and one HDR distribution per model and concurrency to loadtest.output.
+ * Needs JDK 21+ and a file descriptor limit above twice the highest concurrency; run with
+ * -Djdk.tracePinnedThreads=short so any carrier pinning is printed.
+ */
+public class ThreadModelComparison {
+	private static final Logger log = LoggerFactory.getLogger(ThreadModelComparison.class);
+
+	public static void main(String[] args) throws Exception {
+		if (false == VirtualThreads.isSupported()) {
+			throw new IllegalStateException("ThreadModelComparison needs a JDK with virtual threads, running "
+					+ System.getProperty("java.version"));
+		}
+		int rows = Integer.getInteger("loadtest.rows", 1000000);
+		String[] levels = System.getProperty("loadtest.concurrency", "1000,5000,10000,25000,50000").split(",");
+		Duration rampUp = Duration.ofSeconds(Long.getLong("loadtest.rampUp", 10L));
+		Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30L));
+		File output = new File(System.getProperty("loadtest.output", "target/loadtest"));
+		output.mkdirs();
+		int maxConcurrency = 0;
+		for (String level : levels) {
+			maxConcurrency = Math.max(maxConcurrency, Integer.parseInt(level.trim()));
+		}
+
+		try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+			LoadTest.seed(postgres.getPostgresDatabase(), rows);
+
+			StubTransactionService stub = new StubTransactionService(Long.getLong("loadtest.stubLatency", 5L),
+					Integer.getInteger("loadtest.nsfPercent", 10));
+			String reservationUrl = stub.start(Integer.getInteger("loadtest.stubThreads", 400));
+			try (PrintWriter csv = new PrintWriter(new File(output, "thread-model.csv"), "UTF-8")) {
+				csv.println("thread_model,concurrency," + OpenModelLoadGenerator.Result.csvHeader());
+				for (String model : new String[] { "platform", "virtual" }) {
+					ConfigurableApplicationContext app = new SpringApplicationBuilder(ReserveFundsApplication.class).run(
+							"--server.port=0",
+							"--logging.level.qslv=WARN",
+							"--server.tomcat.max-connections=" + (maxConcurrency + 1000),
+							"--server.tomcat.accept-count=" + Math.min(maxConcurrency, 10000),
+							"--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+							"--spring.datasource.username=postgres",
+							"--qslv.reservation-url=" + reservationUrl,
+							"--qslv.virtual-threads-enabled=" + "virtual".equals(model));
+					try {
+						String url = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/ReserveFunds";
+						ClosedModelLoadGenerator generator = new ClosedModelLoadGenerator(url, LoadTest.headers(), maxConcurrency);
+						for (String level : levels) {
+							int concurrency = Integer.parseInt(level.trim());
+							OpenModelLoadGenerator.Result result = generator.run(concurrency, rampUp, duration,
+									() -> LoadTest.randomRequest(rows));
+							csv.println(model + "," + concurrency + "," + result.csv());
+							csv.flush();
+							log.warn("{} {} {}", model, concurrency, result.csv());
+							try (PrintStream hgrm = new PrintStream(new FileOutputStream(
+									new File(output, "latency-" + model + "-" + concurrency + ".hgrm")))) {
+								result.latency.outputPercentileDistribution(hgrm, 1e6);
+							}
+						}
+					} finally {
+						app.close();
+					}
+				}
+			} finally {
+				stub.stop();
+			}
+		}
+	}
+}
@@ -0,0 +1,20 @@
+CREATE TABLE account (
+	account_no VARCHAR(32) PRIMARY KEY,
+	lifecycle_status_cd CHAR(2) NOT NULL
+);
+
+CREATE TABLE debit_card (
+	debit_card_no VARCHAR(32) PRIMARY KEY,
+	account_no VARCHAR(32) NOT NULL REFERENCES account,
+	lifecycle_status_cd CHAR(2) NOT NULL
+);
+
+CREATE TABLE overdraft_instruction (
+	account_no VARCHAR(32) NOT NULL REFERENCES account,
+	sequence INT NOT NULL,
+	overdraft_account_no VARCHAR(32) NOT NULL REFERENCES account,
+	lifecycle_status_cd CHAR(2) NOT NULL,
+	effective_start_dt DATE NOT NULL,
+	effective_end_dt DATE,
+	PRIMARY KEY (account_no, sequence)
+);
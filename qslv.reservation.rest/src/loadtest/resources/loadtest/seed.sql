@@ -0,0 +1,15 @@
+-- ${rows} accounts, one debit card each, two overdraft instructions each. Every 50th account is closed.
+INSERT INTO account
+	SELECT 'A' || lpad(n::text, 10, '0'), CASE WHEN n % 50 = 0 THEN 'CL' ELSE 'EF' END
+	FROM generate_series(1, ${rows}) n;
+
+INSERT INTO debit_card
+	SELECT 'D' || lpad(n::text, 10, '0'), 'A' || lpad(n::text, 10, '0'), 'EF'
+	FROM generate_series(1, ${rows}) n;
+
+INSERT INTO overdraft_instruction
+	SELECT 'A' || lpad(n::text, 10, '0'), s, 'A' || lpad((((n + s * 7919) % ${rows}) + 1)::text, 10, '0'),
+		'EF', current_date - 365, NULL
+	FROM generate_series(1, ${rows}) n, generate_series(1, 2) s;
+
+ANALYZE;
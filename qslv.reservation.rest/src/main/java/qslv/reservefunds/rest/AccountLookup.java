@@ -0,0 +1,361 @@
+package qslv.reservefunds.rest;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import qslv.data.Account;
+import qslv.data.DebitCard;
+
+/**
+ * Read-through cache in front of the JdbcDao debit card, account and overdraft instruction lookups.
+ * Entries in good standing (EF) live for lookupCacheTimeToLive; anything else is negatively
+ * cached for lookupCacheNegativeTimeToLive, capped at lookupCacheTimeToLive, so repeat declines
+ * skip AccountDB without holding off a newly provisioned or repaired card for long.
+ * Keys are the request's own card/account number strings, so a lookup allocates no key.
+ * Overdraft instructions are cached as a compiled OverdraftPlan that expires at its next
+ * effective start/end boundary, or after overdraftPlanTimeToLive, whichever comes first.
+ * When a cache is disabled every call goes straight to JdbcDao.
+ * With qslv.lookup-batch-enabled, debit card and account misses from concurrent requests are
+ * combined by a MicroBatcher into one set-based query.
+ * With qslv.lookup-single-flight-enabled, concurrent loads of the same key share one query.
+ * The caches hold futures: a miss installs an incomplete future and the calling thread loads it
+ * outside the map, so a slow query never holds a ConcurrentHashMap bin lock that unrelated keys
+ * (or a virtual thread's carrier) would wait on. Concurrent misses on the key wait on that future.
+ */
+@Component
+public class AccountLookup {
+	private static final Logger log = LoggerFactory.getLogger(AccountLookup.class);
+
+	@Autowired
+	private JdbcDao jdbcDao;
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	@Qualifier("lookupBatchScheduler")
+	private ScheduledExecutorService lookupBatchScheduler;
+
+	private AsyncCache<String, DebitCard> debitCards;
+	private AsyncCache<String, Account> accounts;
+	private AsyncCache<String, OverdraftPlan> overdraftPlans;
+	private MicroBatcher<String, DebitCard> debitCardBatcher;
+	private MicroBatcher<String, Account> accountBatcher;
+	private SingleFlight<String, DebitCard> debitCardFlights;
+	private SingleFlight<String, Account> accountFlights;
+	private SingleFlight<String, OverdraftPlan> overdraftPlanFlights;
+
+	public void setJdbcDao(JdbcDao jdbcDao) {
+		this.jdbcDao = jdbcDao;
+	}
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+	public void setLookupBatchScheduler(ScheduledExecutorService lookupBatchScheduler) {
+		this.lookupBatchScheduler = lookupBatchScheduler;
+	}
+
+	@PostConstruct
+	void init() {
+		if (config.isLookupSingleFlightEnabled()) {
+			debitCardFlights = new SingleFlight<String, DebitCard>("getDebitCardAndAccount", meterRegistry);
+			accountFlights = new SingleFlight<String, Account>("getAccount", meterRegistry);
+			overdraftPlanFlights = new SingleFlight<String, OverdraftPlan>("getOverdraftInstructions", meterRegistry);
+		}
+		if (config.isLookupBatchEnabled()) {
+			debitCardBatcher = new MicroBatcher<String, DebitCard>("getDebitCardAndAccount", jdbcDao::getDebitCardsAndAccounts,
+					config.getLookupBatchMaxSize(), config.getLookupBatchWindowMicros(), lookupBatchScheduler, meterRegistry);
+			accountBatcher = new MicroBatcher<String, Account>("getAccount", jdbcDao::getAccounts,
+					config.getLookupBatchMaxSize(), config.getLookupBatchWindowMicros(), lookupBatchScheduler, meterRegistry);
+		}
+		if (config.isOverdraftPlanCacheEnabled()) {
+			overdraftPlans = Caffeine.newBuilder()
+					.maximumSize(config.getLookupCacheMaximumSize())
+					.expireAfter(new Expiry<String, OverdraftPlan>() {
+						public long expireAfterCreate(String key, OverdraftPlan plan, long currentTime) {
+							long untilBoundary = plan.getValidUntil() - System.currentTimeMillis();
+							return TimeUnit.MILLISECONDS.toNanos(Math.max(0L,
+									Math.min(untilBoundary, config.getOverdraftPlanTimeToLive())));
+						}
+						public long expireAfterUpdate(String key, OverdraftPlan plan, long currentTime, long currentDuration) {
+							return expireAfterCreate(key, plan, currentTime);
+						}
+						public long expireAfterRead(String key, OverdraftPlan plan, long currentTime, long currentDuration) {
+							return currentDuration;
+						} })
+					.recordStats()
+					.buildAsync();
+			CaffeineCacheMetrics.monitor(meterRegistry, overdraftPlans.synchronous(), "overdraftPlanLookup");
+		}
+		if (false == config.isLookupCacheEnabled()) {
+			log.debug("Lookup cache disabled.");
+			return;
+		}
+		debitCards = Caffeine.newBuilder()
+				.maximumSize(config.getLookupCacheMaximumSize())
+				.expireAfter(new StandingExpiry<DebitCard>() {
+					boolean inGoodStanding(DebitCard card) {
+						return isEffective(card.getDebitCardLifeCycleStatus())
+							&& isEffective(card.getAccount().getAccountLifeCycleStatus());
+					} })
+				.recordStats()
+				.buildAsync();
+		accounts = Caffeine.newBuilder()
+				.maximumSize(config.getLookupCacheMaximumSize())
+				.expireAfter(new StandingExpiry<Account>() {
+					boolean inGoodStanding(Account account) {
+						return isEffective(account.getAccountLifeCycleStatus());
+					} })
+				.recordStats()
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(meterRegistry, debitCards.synchronous(), "debitCardLookup");
+		CaffeineCacheMetrics.monitor(meterRegistry, accounts.synchronous(), "accountLookup");
+	}
+
+	public DebitCard getDebitCardAndAccount(final String debitCardNumber) {
+		if (debitCards == null) {
+			return loadDebitCardAndAccount(debitCardNumber);
+		}
+		return get(debitCards, debitCardNumber, this::loadDebitCardAndAccount);
+	}
+
+	public Account getAccount(final String accountNumber) {
+		if (accounts == null) {
+			return loadAccount(accountNumber);
+		}
+		return get(accounts, accountNumber, this::loadAccount);
+	}
+
+	private DebitCard queryDebitCardAndAccount(final String debitCardNumber) {
+		if (debitCardBatcher == null) {
+			return jdbcDao.getDebitCardAndAccount(debitCardNumber);
+		}
+		DebitCard debitCard = debitCardBatcher.get(debitCardNumber);
+		if (debitCard == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account - debit_card rows returned.", 0));
+		}
+		return debitCard;
+	}
+
+	private Account queryAccount(final String accountNumber) {
+		if (accountBatcher == null) {
+			return jdbcDao.getAccount(accountNumber);
+		}
+		Account account = accountBatcher.get(accountNumber);
+		if (account == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account_balance rows returned.", 0));
+		}
+		return account;
+	}
+
+	public boolean isCaching() {
+		return accounts != null;
+	}
+
+	/**
+	 * Caches debit cards and accounts fetched by a set-based query, so the lookups that follow hit.
+	 */
+	public void cache(Map<String, DebitCard> debitCardsFound, Map<String, Account> accountsFound) {
+		if (debitCards != null) {
+			debitCards.synchronous().putAll(debitCardsFound);
+		}
+		if (accounts != null) {
+			accounts.synchronous().putAll(accountsFound);
+		}
+	}
+
+	/**
+	 * Combined account and overdraft lookup through the caches. A cached account is returned with null
+	 * overdraft instructions, leaving the plan to getOverdraftPlan on decline; on a miss the combined
+	 * query runs and its account and overdraft plan are cached.
+	 */
+	public CombinedLookup getAccountAndOverdraft(final String accountNumber) {
+		Account account = completed(accounts, accountNumber);
+		if (account != null) {
+			CombinedLookup lookup = new CombinedLookup();
+			lookup.setAccount(account);
+			lookup.setOverdraftInstructions(null);
+			return lookup;
+		}
+		CombinedLookup lookup = jdbcDao.getAccountAndOverdraft(accountNumber);
+		if (accounts != null) {
+			accounts.synchronous().put(accountNumber, lookup.getAccount());
+		}
+		cacheOverdraftPlan(accountNumber, lookup);
+		return lookup;
+	}
+
+	/**
+	 * getAccountAndOverdraft by debit card number.
+	 */
+	public CombinedLookup getDebitCardAccountAndOverdraft(final String debitCardNumber) {
+		DebitCard debitCard = completed(debitCards, debitCardNumber);
+		if (debitCard != null) {
+			CombinedLookup lookup = new CombinedLookup();
+			lookup.setDebitCard(debitCard);
+			lookup.setAccount(debitCard.getAccount());
+			lookup.setOverdraftInstructions(null);
+			return lookup;
+		}
+		CombinedLookup lookup = jdbcDao.getDebitCardAccountAndOverdraft(debitCardNumber);
+		if (debitCards != null) {
+			debitCards.synchronous().put(debitCardNumber, lookup.getDebitCard());
+		}
+		cacheOverdraftPlan(lookup.getAccount().getAccountNumber(), lookup);
+		return lookup;
+	}
+
+	// an account without instructions is not cached: getOverdraftPlan treats it as an error.
+	private void cacheOverdraftPlan(String accountNumber, CombinedLookup lookup) {
+		if (overdraftPlans != null && false == lookup.getOverdraftInstructions().isEmpty()) {
+			overdraftPlans.synchronous().put(accountNumber,
+					OverdraftPlan.compile(lookup.getOverdraftInstructions(), LocalDateTime.now()));
+		}
+	}
+
+	// the cached value, or null when absent or still loading.
+	private static <V> V completed(AsyncCache<String, V> cache, String key) {
+		if (cache == null) {
+			return null;
+		}
+		CompletableFuture<V> cached = cache.getIfPresent(key);
+		if (cached == null || false == cached.isDone() || cached.isCompletedExceptionally()) {
+			return null;
+		}
+		return cached.join();
+	}
+
+	public OverdraftPlan getOverdraftPlan(final String accountNumber) {
+		if (overdraftPlans == null) {
+			return loadOverdraftPlan(accountNumber);
+		}
+		return get(overdraftPlans, accountNumber, this::loadOverdraftPlan);
+	}
+
+	// a failed load, Errors included, completes the future exceptionally and removes it, so errors are
+	// not cached and callers already joined on it do not hang.
+	private <V> V get(AsyncCache<String, V> cache, String key, Function<String, V> loader) {
+		CompletableFuture<V> cached = cache.getIfPresent(key);
+		if (cached == null) {
+			CompletableFuture<V> mine = new CompletableFuture<V>();
+			cached = cache.asMap().putIfAbsent(key, mine);
+			if (cached == null) {
+				try {
+					V value = loader.apply(key);
+					mine.complete(value);
+					return value;
+				} catch (Throwable ex) {
+					mine.completeExceptionally(ex);
+					cache.asMap().remove(key, mine);
+					throw ex;
+				}
+			}
+		}
+		try {
+			return cached.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			if (ex.getCause() instanceof Error) {
+				throw (Error) ex.getCause();
+			}
+			throw ex;
+		}
+	}
+
+	private DebitCard loadDebitCardAndAccount(final String debitCardNumber) {
+		return debitCardFlights == null ? queryDebitCardAndAccount(debitCardNumber)
+				: debitCardFlights.execute(debitCardNumber, this::queryDebitCardAndAccount);
+	}
+
+	private Account loadAccount(final String accountNumber) {
+		return accountFlights == null ? queryAccount(accountNumber)
+				: accountFlights.execute(accountNumber, this::queryAccount);
+	}
+
+	private OverdraftPlan loadOverdraftPlan(final String accountNumber) {
+		return overdraftPlanFlights == null ? queryOverdraftPlan(accountNumber)
+				: overdraftPlanFlights.execute(accountNumber, this::queryOverdraftPlan);
+	}
+
+	private OverdraftPlan queryOverdraftPlan(final String accountNumber) {
+		return OverdraftPlan.compile(jdbcDao.getOverdraftInstructions(accountNumber), LocalDateTime.now());
+	}
+
+	public void evictDebitCard(final String debitCardNumber) {
+		log.info("evictDebitCard {}", debitCardNumber);
+		if (debitCards != null) {
+			debitCards.synchronous().invalidate(debitCardNumber);
+		}
+	}
+
+	/**
+	 * Evicts the account, every cached debit card mapped to it and every overdraft plan that
+	 * belongs to it or names it as an overdraft account, eligible or not, since those entries
+	 * depend on its lifecycle status.
+	 */
+	public void evictAccount(final String accountNumber) {
+		log.info("evictAccount {}", accountNumber);
+		if (accounts != null) {
+			accounts.synchronous().invalidate(accountNumber);
+		}
+		if (debitCards != null) {
+			debitCards.synchronous().asMap().values().removeIf(card -> accountNumber.equals(card.getAccount().getAccountNumber()));
+		}
+		if (overdraftPlans != null) {
+			overdraftPlans.synchronous().asMap().entrySet().removeIf(entry -> 
+				entry.getKey().equals(accountNumber) || entry.getValue().references(accountNumber));
+		}
+	}
+
+	private static boolean isEffective(String lifeCycleStatus) {
+		return "EF".equals(lifeCycleStatus);
+	}
+
+	private abstract class StandingExpiry<V> implements Expiry<String, V> {
+		abstract boolean inGoodStanding(V value);
+
+		@Override
+		public long expireAfterCreate(String key, V value, long currentTime) {
+			return TimeUnit.MILLISECONDS.toNanos(inGoodStanding(value) ? config.getLookupCacheTimeToLive()
+					: Math.min(config.getLookupCacheNegativeTimeToLive(), config.getLookupCacheTimeToLive()));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors backing the asynchronous reservation path.
+ * jdbcExecutor - blocking AccountDB lookups that must not run on HTTP client event loop threads.
+ * reservationRetryScheduler - timer that schedules Transaction Service retries instead of sleeping.
+ * batchExecutor - runs the items of /ReserveFunds/batch; its size bounds batch parallelism across all batches.
+ * lookupBatchScheduler - times and runs micro-batched AccountDB lookups.
+ * sliFlushScheduler - writes the aggregated SLI summaries once per interval.
+ * With qslv.virtual-threads-enabled, jdbcExecutor and batchExecutor start a virtual thread per task;
+ * AccountDB concurrency is then bounded by the Hikari pool and the AccountDB bulkhead, and batch items
+ * wait for one of batchParallelism permits so the batch bound still holds.
+ */
+@Configuration
+public class AsyncConfig {
+	@Autowired
+	private ConfigProperties config;
+
+	@Bean
+	public Executor jdbcExecutor() {
+		if (config.isVirtualThreadsEnabled()) {
+			return VirtualThreads.newThreadPerTaskExecutor("jdbc-async-");
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(config.getAsyncJdbcThreads());
+		executor.setMaxPoolSize(config.getAsyncJdbcThreads());
+		executor.setThreadNamePrefix("jdbc-async-");
+		return executor;
+	}
+
+	@Bean
+	public Executor batchExecutor() {
+		if (config.isVirtualThreadsEnabled()) {
+			return bounded(VirtualThreads.newThreadPerTaskExecutor("batch-"), config.getBatchParallelism());
+		}
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(config.getBatchParallelism());
+		executor.setMaxPoolSize(config.getBatchParallelism());
+		executor.setThreadNamePrefix("batch-");
+		return executor;
+	}
+
+	/**
+	 * Runs at most permits tasks of executor at a time. A task started beyond that waits on its own
+	 * thread, which for a virtual thread parks without holding a carrier.
+	 */
+	static Executor bounded(final Executor executor, final int permits) {
+		final Semaphore running = new Semaphore(permits);
+		return task -> executor.execute(() -> {
+			running.acquireUninterruptibly();
+			try {
+				task.run();
+			} finally {
+				running.release();
+			}
+		});
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ScheduledExecutorService reservationRetryScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("reservation-retry-"));
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ScheduledExecutorService lookupBatchScheduler() {
+		return Executors.newScheduledThreadPool(config.getLookupBatchThreads(), new CustomizableThreadFactory("lookup-batch-"));
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ScheduledExecutorService sliFlushScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("sli-flush-"));
+	}
+}
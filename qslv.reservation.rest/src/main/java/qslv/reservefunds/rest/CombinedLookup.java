@@ -0,0 +1,42 @@
+package qslv.reservefunds.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import qslv.data.Account;
+import qslv.data.DebitCard;
+import qslv.data.OverdraftInstruction;
+
+/**
+ * Result of a single round trip lookup: the debit card (when looked up by card), the account
+ * standing and the account's overdraft instructions in sequence order.
+ */
+public class CombinedLookup {
+	private DebitCard debitCard;
+	private Account account;
+	private List<OverdraftInstruction> overdraftInstructions = new ArrayList<OverdraftInstruction>();
+
+	public DebitCard getDebitCard() {
+		return debitCard;
+	}
+
+	public void setDebitCard(DebitCard debitCard) {
+		this.debitCard = debitCard;
+	}
+
+	public Account getAccount() {
+		return account;
+	}
+
+	public void setAccount(Account account) {
+		this.account = account;
+	}
+
+	public List<OverdraftInstruction> getOverdraftInstructions() {
+		return overdraftInstructions;
+	}
+
+	public void setOverdraftInstructions(List<OverdraftInstruction> overdraftInstructions) {
+		this.overdraftInstructions = overdraftInstructions;
+	}
+}
@@ -0,0 +1,154 @@
+package qslv.reservefunds.rest;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Adaptive concurrency limit in front of POST /ReserveFunds and /ReserveFunds/async.
+ * The limit follows the measured latency of those requests (see ConcurrencyLimiter); a request
+ * arriving while the limit is in use gets an immediate 503 with Retry-After rather than a
+ * place in Tomcat's queue. Async requests hold their slot until the response is written.
+ * Publishes reservefunds.concurrency.limit, reservefunds.concurrency.inflight and
+ * reservefunds.concurrency.requests tagged outcome accepted/rejected.
+ */
+@Component
+@Profile("!reactive")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private ConcurrencyLimiter limiter;
+	private Counter accepted;
+	private Counter rejected;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void init() {
+		if (false == config.isConcurrencyLimitEnabled()) {
+			log.debug("Concurrency limit disabled.");
+			return;
+		}
+		limiter = new ConcurrencyLimiter(config.getConcurrencyLimitInitial(), config.getConcurrencyLimitMin(),
+				config.getConcurrencyLimitMax(), config.getConcurrencyLimitSmoothing(), config.getConcurrencyLimitTolerance());
+		accepted = Counter.builder("reservefunds.concurrency.requests").tag("outcome", "accepted").register(meterRegistry);
+		rejected = Counter.builder("reservefunds.concurrency.requests").tag("outcome", "rejected").register(meterRegistry);
+		meterRegistry.gauge("reservefunds.concurrency.limit", limiter, ConcurrencyLimiter::getLimit);
+		meterRegistry.gauge("reservefunds.concurrency.inflight", limiter, ConcurrencyLimiter::getInFlight);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (limiter == null || false == "POST".equals(request.getMethod())) {
+			return true;
+		}
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		return false == ("/ReserveFunds".equals(path) || "/ReserveFunds/async".equals(path));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (false == limiter.tryAcquire()) {
+			rejected.increment();
+			log.warn("Concurrency limit {} reached, rejecting {}", limiter.getLimit(), request.getRequestURI());
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(config.getConcurrencyLimitRetryAfter()));
+			return;
+		}
+		accepted.increment();
+
+		final long start = System.nanoTime();
+		boolean completed = false;
+		boolean async = false;
+		try {
+			chain.doFilter(request, response);
+			async = request.isAsyncStarted();
+			completed = true;
+		} finally {
+			if (false == completed) {
+				// the status is not yet set when the chain throws; a failure must not count as a fast success
+				limiter.drop();
+			} else if (async) {
+				request.getAsyncContext().addListener(new ReleaseListener(start));
+			} else {
+				release(start, response.getStatus());
+			}
+		}
+	}
+
+	/**
+	 * A 503 means a dependency is already refusing work; it is treated as a drop rather than a latency sample.
+	 */
+	private void release(long start, int status) {
+		if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+			limiter.drop();
+		} else {
+			limiter.release(System.nanoTime() - start);
+		}
+	}
+
+	private class ReleaseListener implements AsyncListener {
+		private final long start;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		ReleaseListener(long start) {
+			this.start = start;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			if (released.compareAndSet(false, true)) {
+				release(start, ((HttpServletResponse) event.getSuppliedResponse()).getStatus());
+			}
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			if (released.compareAndSet(false, true)) {
+				limiter.drop();
+			}
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			if (released.compareAndSet(false, true)) {
+				limiter.drop();
+			}
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
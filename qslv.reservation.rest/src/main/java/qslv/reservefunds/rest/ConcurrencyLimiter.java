@@ -0,0 +1,96 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient concurrency limit. Keeps a slow-moving average of request latency as the no-load
+ * baseline and compares each new sample to it: while latency stays within tolerance of the
+ * baseline the limit grows by roughly sqrt(limit); once latency rises (requests are queueing
+ * somewhere) the limit shrinks in proportion, never by more than half per sample.
+ * Samples taken while less than half the limit is in use do not raise it, so an idle period
+ * cannot inflate the limit. A dropped request (timeout, overloaded dependency) cuts the limit by 10%.
+ */
+public class ConcurrencyLimiter {
+	private static final double BASELINE_WINDOW = 600.0;
+	private static final double DROP_BACKOFF = 0.9;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double smoothing;
+	private final double tolerance;
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile double limit;
+	private double baselineRtt = 0.0;
+
+	public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.smoothing = smoothing;
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Takes a slot if fewer than limit requests are in flight. Every successful acquire
+	 * must be followed by exactly one release or drop.
+	 */
+	public boolean tryAcquire() {
+		for (;;) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	public void release(long rttNanos) {
+		int current = inFlight.getAndDecrement();
+		update(rttNanos, current);
+	}
+
+	public void drop() {
+		inFlight.decrementAndGet();
+		synchronized (this) {
+			limit = clamp(limit * DROP_BACKOFF);
+		}
+	}
+
+	private synchronized void update(long rttNanos, int inFlightAtRelease) {
+		if (rttNanos <= 0L) {
+			return;
+		}
+		double rtt = rttNanos;
+		if (baselineRtt == 0.0) {
+			baselineRtt = rtt;
+		} else {
+			baselineRtt += (rtt - baselineRtt) / BASELINE_WINDOW;
+			// recover quickly when the dependency gets faster than the remembered baseline
+			if (baselineRtt > 2.0 * rtt) {
+				baselineRtt = rtt;
+			}
+		}
+		if (inFlightAtRelease < limit / 2.0) {
+			return;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / rtt));
+		double target = limit * gradient + Math.sqrt(limit);
+		limit = clamp(limit * (1.0 - smoothing) + target * smoothing);
+	}
+
+	private double clamp(double candidate) {
+		return Math.max(minLimit, Math.min(maxLimit, candidate));
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+}
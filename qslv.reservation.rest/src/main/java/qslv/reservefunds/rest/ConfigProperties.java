@@ -1,5 +1,10 @@
 package qslv.reservefunds.rest;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import qslv.util.EnableQuickSilver;
@@ -17,6 +22,72 @@ public class ConfigProperties {
 	private int restBackoffDelay = 100;
 	private int restBackoffDelayMax = 500; 
 	private String restAit;
+	private int restMaxConnections = 200;
+	private int restMaxConnectionsPerRoute = 100;
+	private int restIdleEvictionTime = 30000;
+	private int restValidateAfterInactivity = 2000;
+	private int restKeepAlive = 30000;
+	private int restConnectionTimeToLive = 300000;
+	private int asyncJdbcThreads = 16;
+	private boolean lookupCacheEnabled;
+	private long lookupCacheMaximumSize = 100000L;
+	private int lookupCacheTimeToLive = 300000;
+	private int lookupCacheNegativeTimeToLive = 30000;
+	private boolean overdraftPlanCacheEnabled;
+	private int overdraftPlanTimeToLive = 300000;
+	private boolean combinedOverdraftLookup;
+	private boolean overdraftPrefetchEnabled;
+	private List<String> overdraftPrefetchTaxonomies = new ArrayList<String>();
+	private int batchMaxSize = 1000;
+	private int batchParallelism = 16;
+	private boolean lookupBatchEnabled;
+	private int lookupBatchMaxSize = 100;
+	private int lookupBatchWindowMicros = 500;
+	private int lookupBatchThreads = 4;
+	private boolean lookupSingleFlightEnabled;
+	private boolean replayCacheEnabled;
+	private long replayCacheMaximumSize = 100000L;
+	private int replayCacheTimeToLive = 600000;
+	private boolean circuitBreakerEnabled;
+	private float circuitBreakerFailureRateThreshold = 50f;
+	private float circuitBreakerSlowCallRateThreshold = 80f;
+	private int circuitBreakerWindowSize = 100;
+	private int circuitBreakerMinimumCalls = 20;
+	private int circuitBreakerOpenTime = 5000;
+	private int accountDbSlowCallDuration = 200;
+	private int transactionSlowCallDuration = 2000;
+	private int accountDbBulkheadMaxCalls = 50;
+	private int transactionBulkheadMaxCalls = 100;
+	private int bulkheadMaxWait = 0;
+	private boolean concurrencyLimitEnabled = false;
+	private int concurrencyLimitInitial = 20;
+	private int concurrencyLimitMin = 4;
+	private int concurrencyLimitMax = 200;
+	private double concurrencyLimitSmoothing = 0.2;
+	private double concurrencyLimitTolerance = 1.5;
+	private int concurrencyLimitRetryAfter = 1;
+	private boolean virtualThreadsEnabled = false;
+	private String r2dbcUrl;
+	private int r2dbcPoolInitialSize = 10;
+	private int r2dbcPoolMaxSize = 50;
+	private int r2dbcPoolMaxAcquireTime = 500;
+	private boolean serverTimingEnabled = false;
+	private double serverTimingSampleRate = 0.0;
+	private TimeUnit remoteElapsedTimeUnit = TimeUnit.NANOSECONDS;
+	private int flightRecordingMaxSeconds = 300;
+	private String flightRecordingSettings = "profile";
+	private boolean tracingEnabled = false;
+	private double tracingSampleRate = 0.01;
+	private boolean tracingTailSamplingEnabled = true;
+	private int tracingTailLatencyThreshold = 500;
+	private int tracingTailMaxTraces = 10000;
+	private String tracingFile = "reservefunds-spans.jsonl";
+	private String sliMode = "log";
+	private int sliInterval = 60;
+	private double sliLogSampleRate = 0.01;
+	private String flightRecordingAccountHashKey;
+	private int tracingTailMaxTraceAge = 60000;
+	private List<String> sliAspectLoggers = new ArrayList<String>(Collections.singletonList("qslv.util"));
 
 	public String getAitid() {
 		return aitid;
@@ -90,4 +161,533 @@ public class ConfigProperties {
 		this.reservationUrl = reservationUrl;
 	}
 	
+
+	public int getRestMaxConnections() {
+		return restMaxConnections;
+	}
+
+	public void setRestMaxConnections(int restMaxConnections) {
+		this.restMaxConnections = restMaxConnections;
+	}
+
+	public int getRestMaxConnectionsPerRoute() {
+		return restMaxConnectionsPerRoute;
+	}
+
+	public void setRestMaxConnectionsPerRoute(int restMaxConnectionsPerRoute) {
+		this.restMaxConnectionsPerRoute = restMaxConnectionsPerRoute;
+	}
+
+	public int getRestIdleEvictionTime() {
+		return restIdleEvictionTime;
+	}
+
+	public void setRestIdleEvictionTime(int restIdleEvictionTime) {
+		this.restIdleEvictionTime = restIdleEvictionTime;
+	}
+
+	public int getRestValidateAfterInactivity() {
+		return restValidateAfterInactivity;
+	}
+
+	public void setRestValidateAfterInactivity(int restValidateAfterInactivity) {
+		this.restValidateAfterInactivity = restValidateAfterInactivity;
+	}
+
+	public int getRestKeepAlive() {
+		return restKeepAlive;
+	}
+
+	public void setRestKeepAlive(int restKeepAlive) {
+		this.restKeepAlive = restKeepAlive;
+	}
+
+	public int getRestConnectionTimeToLive() {
+		return restConnectionTimeToLive;
+	}
+
+	public void setRestConnectionTimeToLive(int restConnectionTimeToLive) {
+		this.restConnectionTimeToLive = restConnectionTimeToLive;
+	}
+
+	public int getAsyncJdbcThreads() {
+		return asyncJdbcThreads;
+	}
+
+	public void setAsyncJdbcThreads(int asyncJdbcThreads) {
+		this.asyncJdbcThreads = asyncJdbcThreads;
+	}
+
+	public boolean isLookupCacheEnabled() {
+		return lookupCacheEnabled;
+	}
+
+	public void setLookupCacheEnabled(boolean lookupCacheEnabled) {
+		this.lookupCacheEnabled = lookupCacheEnabled;
+	}
+
+	public long getLookupCacheMaximumSize() {
+		return lookupCacheMaximumSize;
+	}
+
+	public void setLookupCacheMaximumSize(long lookupCacheMaximumSize) {
+		this.lookupCacheMaximumSize = lookupCacheMaximumSize;
+	}
+
+	public int getLookupCacheTimeToLive() {
+		return lookupCacheTimeToLive;
+	}
+
+	public void setLookupCacheTimeToLive(int lookupCacheTimeToLive) {
+		this.lookupCacheTimeToLive = lookupCacheTimeToLive;
+	}
+
+	public int getLookupCacheNegativeTimeToLive() {
+		return lookupCacheNegativeTimeToLive;
+	}
+
+	public void setLookupCacheNegativeTimeToLive(int lookupCacheNegativeTimeToLive) {
+		this.lookupCacheNegativeTimeToLive = lookupCacheNegativeTimeToLive;
+	}
+
+	public boolean isOverdraftPlanCacheEnabled() {
+		return overdraftPlanCacheEnabled;
+	}
+
+	public void setOverdraftPlanCacheEnabled(boolean overdraftPlanCacheEnabled) {
+		this.overdraftPlanCacheEnabled = overdraftPlanCacheEnabled;
+	}
+
+	public int getOverdraftPlanTimeToLive() {
+		return overdraftPlanTimeToLive;
+	}
+
+	public void setOverdraftPlanTimeToLive(int overdraftPlanTimeToLive) {
+		this.overdraftPlanTimeToLive = overdraftPlanTimeToLive;
+	}
+
+	public boolean isCombinedOverdraftLookup() {
+		return combinedOverdraftLookup;
+	}
+
+	public void setCombinedOverdraftLookup(boolean combinedOverdraftLookup) {
+		this.combinedOverdraftLookup = combinedOverdraftLookup;
+	}
+
+	public boolean isOverdraftPrefetchEnabled() {
+		return overdraftPrefetchEnabled;
+	}
+
+	public void setOverdraftPrefetchEnabled(boolean overdraftPrefetchEnabled) {
+		this.overdraftPrefetchEnabled = overdraftPrefetchEnabled;
+	}
+
+	public List<String> getOverdraftPrefetchTaxonomies() {
+		return overdraftPrefetchTaxonomies;
+	}
+
+	public void setOverdraftPrefetchTaxonomies(List<String> overdraftPrefetchTaxonomies) {
+		this.overdraftPrefetchTaxonomies = overdraftPrefetchTaxonomies;
+	}
+
+	public int getBatchMaxSize() {
+		return batchMaxSize;
+	}
+
+	public void setBatchMaxSize(int batchMaxSize) {
+		this.batchMaxSize = batchMaxSize;
+	}
+
+	public int getBatchParallelism() {
+		return batchParallelism;
+	}
+
+	public void setBatchParallelism(int batchParallelism) {
+		this.batchParallelism = batchParallelism;
+	}
+
+	public boolean isLookupBatchEnabled() {
+		return lookupBatchEnabled;
+	}
+
+	public void setLookupBatchEnabled(boolean lookupBatchEnabled) {
+		this.lookupBatchEnabled = lookupBatchEnabled;
+	}
+
+	public int getLookupBatchMaxSize() {
+		return lookupBatchMaxSize;
+	}
+
+	public void setLookupBatchMaxSize(int lookupBatchMaxSize) {
+		this.lookupBatchMaxSize = lookupBatchMaxSize;
+	}
+
+	public int getLookupBatchWindowMicros() {
+		return lookupBatchWindowMicros;
+	}
+
+	public void setLookupBatchWindowMicros(int lookupBatchWindowMicros) {
+		this.lookupBatchWindowMicros = lookupBatchWindowMicros;
+	}
+
+	public int getLookupBatchThreads() {
+		return lookupBatchThreads;
+	}
+
+	public void setLookupBatchThreads(int lookupBatchThreads) {
+		this.lookupBatchThreads = lookupBatchThreads;
+	}
+
+	public boolean isLookupSingleFlightEnabled() {
+		return lookupSingleFlightEnabled;
+	}
+
+	public void setLookupSingleFlightEnabled(boolean lookupSingleFlightEnabled) {
+		this.lookupSingleFlightEnabled = lookupSingleFlightEnabled;
+	}
+
+	public boolean isReplayCacheEnabled() {
+		return replayCacheEnabled;
+	}
+
+	public void setReplayCacheEnabled(boolean replayCacheEnabled) {
+		this.replayCacheEnabled = replayCacheEnabled;
+	}
+
+	public long getReplayCacheMaximumSize() {
+		return replayCacheMaximumSize;
+	}
+
+	public void setReplayCacheMaximumSize(long replayCacheMaximumSize) {
+		this.replayCacheMaximumSize = replayCacheMaximumSize;
+	}
+
+	public int getReplayCacheTimeToLive() {
+		return replayCacheTimeToLive;
+	}
+
+	public void setReplayCacheTimeToLive(int replayCacheTimeToLive) {
+		this.replayCacheTimeToLive = replayCacheTimeToLive;
+	}
+
+	public boolean isCircuitBreakerEnabled() {
+		return circuitBreakerEnabled;
+	}
+
+	public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+		this.circuitBreakerEnabled = circuitBreakerEnabled;
+	}
+
+	public float getCircuitBreakerFailureRateThreshold() {
+		return circuitBreakerFailureRateThreshold;
+	}
+
+	public void setCircuitBreakerFailureRateThreshold(float circuitBreakerFailureRateThreshold) {
+		this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+	}
+
+	public float getCircuitBreakerSlowCallRateThreshold() {
+		return circuitBreakerSlowCallRateThreshold;
+	}
+
+	public void setCircuitBreakerSlowCallRateThreshold(float circuitBreakerSlowCallRateThreshold) {
+		this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+	}
+
+	public int getCircuitBreakerWindowSize() {
+		return circuitBreakerWindowSize;
+	}
+
+	public void setCircuitBreakerWindowSize(int circuitBreakerWindowSize) {
+		this.circuitBreakerWindowSize = circuitBreakerWindowSize;
+	}
+
+	public int getCircuitBreakerMinimumCalls() {
+		return circuitBreakerMinimumCalls;
+	}
+
+	public void setCircuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+		this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+	}
+
+	public int getCircuitBreakerOpenTime() {
+		return circuitBreakerOpenTime;
+	}
+
+	public void setCircuitBreakerOpenTime(int circuitBreakerOpenTime) {
+		this.circuitBreakerOpenTime = circuitBreakerOpenTime;
+	}
+
+	public int getAccountDbSlowCallDuration() {
+		return accountDbSlowCallDuration;
+	}
+
+	public void setAccountDbSlowCallDuration(int accountDbSlowCallDuration) {
+		this.accountDbSlowCallDuration = accountDbSlowCallDuration;
+	}
+
+	public int getTransactionSlowCallDuration() {
+		return transactionSlowCallDuration;
+	}
+
+	public void setTransactionSlowCallDuration(int transactionSlowCallDuration) {
+		this.transactionSlowCallDuration = transactionSlowCallDuration;
+	}
+
+	public int getAccountDbBulkheadMaxCalls() {
+		return accountDbBulkheadMaxCalls;
+	}
+
+	public void setAccountDbBulkheadMaxCalls(int accountDbBulkheadMaxCalls) {
+		this.accountDbBulkheadMaxCalls = accountDbBulkheadMaxCalls;
+	}
+
+	public int getTransactionBulkheadMaxCalls() {
+		return transactionBulkheadMaxCalls;
+	}
+
+	public void setTransactionBulkheadMaxCalls(int transactionBulkheadMaxCalls) {
+		this.transactionBulkheadMaxCalls = transactionBulkheadMaxCalls;
+	}
+
+	public int getBulkheadMaxWait() {
+		return bulkheadMaxWait;
+	}
+
+	public void setBulkheadMaxWait(int bulkheadMaxWait) {
+		this.bulkheadMaxWait = bulkheadMaxWait;
+	}
+
+	public boolean isConcurrencyLimitEnabled() {
+		return concurrencyLimitEnabled;
+	}
+
+	public void setConcurrencyLimitEnabled(boolean concurrencyLimitEnabled) {
+		this.concurrencyLimitEnabled = concurrencyLimitEnabled;
+	}
+
+	public int getConcurrencyLimitInitial() {
+		return concurrencyLimitInitial;
+	}
+
+	public void setConcurrencyLimitInitial(int concurrencyLimitInitial) {
+		this.concurrencyLimitInitial = concurrencyLimitInitial;
+	}
+
+	public int getConcurrencyLimitMin() {
+		return concurrencyLimitMin;
+	}
+
+	public void setConcurrencyLimitMin(int concurrencyLimitMin) {
+		this.concurrencyLimitMin = concurrencyLimitMin;
+	}
+
+	public int getConcurrencyLimitMax() {
+		return concurrencyLimitMax;
+	}
+
+	public void setConcurrencyLimitMax(int concurrencyLimitMax) {
+		this.concurrencyLimitMax = concurrencyLimitMax;
+	}
+
+	public double getConcurrencyLimitSmoothing() {
+		return concurrencyLimitSmoothing;
+	}
+
+	public void setConcurrencyLimitSmoothing(double concurrencyLimitSmoothing) {
+		this.concurrencyLimitSmoothing = concurrencyLimitSmoothing;
+	}
+
+	public double getConcurrencyLimitTolerance() {
+		return concurrencyLimitTolerance;
+	}
+
+	public void setConcurrencyLimitTolerance(double concurrencyLimitTolerance) {
+		this.concurrencyLimitTolerance = concurrencyLimitTolerance;
+	}
+
+	public int getConcurrencyLimitRetryAfter() {
+		return concurrencyLimitRetryAfter;
+	}
+
+	public void setConcurrencyLimitRetryAfter(int concurrencyLimitRetryAfter) {
+		this.concurrencyLimitRetryAfter = concurrencyLimitRetryAfter;
+	}
+
+	public boolean isVirtualThreadsEnabled() {
+		return virtualThreadsEnabled;
+	}
+
+	public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+		this.virtualThreadsEnabled = virtualThreadsEnabled;
+	}
+
+	public String getR2dbcUrl() {
+		return r2dbcUrl;
+	}
+
+	public void setR2dbcUrl(String r2dbcUrl) {
+		this.r2dbcUrl = r2dbcUrl;
+	}
+
+	public int getR2dbcPoolInitialSize() {
+		return r2dbcPoolInitialSize;
+	}
+
+	public void setR2dbcPoolInitialSize(int r2dbcPoolInitialSize) {
+		this.r2dbcPoolInitialSize = r2dbcPoolInitialSize;
+	}
+
+	public int getR2dbcPoolMaxSize() {
+		return r2dbcPoolMaxSize;
+	}
+
+	public void setR2dbcPoolMaxSize(int r2dbcPoolMaxSize) {
+		this.r2dbcPoolMaxSize = r2dbcPoolMaxSize;
+	}
+
+	public int getR2dbcPoolMaxAcquireTime() {
+		return r2dbcPoolMaxAcquireTime;
+	}
+
+	public void setR2dbcPoolMaxAcquireTime(int r2dbcPoolMaxAcquireTime) {
+		this.r2dbcPoolMaxAcquireTime = r2dbcPoolMaxAcquireTime;
+	}
+
+	public boolean isServerTimingEnabled() {
+		return serverTimingEnabled;
+	}
+
+	public void setServerTimingEnabled(boolean serverTimingEnabled) {
+		this.serverTimingEnabled = serverTimingEnabled;
+	}
+
+	public double getServerTimingSampleRate() {
+		return serverTimingSampleRate;
+	}
+
+	public void setServerTimingSampleRate(double serverTimingSampleRate) {
+		this.serverTimingSampleRate = serverTimingSampleRate;
+	}
+
+	public TimeUnit getRemoteElapsedTimeUnit() {
+		return remoteElapsedTimeUnit;
+	}
+
+	public void setRemoteElapsedTimeUnit(TimeUnit remoteElapsedTimeUnit) {
+		this.remoteElapsedTimeUnit = remoteElapsedTimeUnit;
+	}
+
+	public int getFlightRecordingMaxSeconds() {
+		return flightRecordingMaxSeconds;
+	}
+
+	public void setFlightRecordingMaxSeconds(int flightRecordingMaxSeconds) {
+		this.flightRecordingMaxSeconds = flightRecordingMaxSeconds;
+	}
+
+	public String getFlightRecordingSettings() {
+		return flightRecordingSettings;
+	}
+
+	public void setFlightRecordingSettings(String flightRecordingSettings) {
+		this.flightRecordingSettings = flightRecordingSettings;
+	}
+
+	public boolean isTracingEnabled() {
+		return tracingEnabled;
+	}
+
+	public void setTracingEnabled(boolean tracingEnabled) {
+		this.tracingEnabled = tracingEnabled;
+	}
+
+	public double getTracingSampleRate() {
+		return tracingSampleRate;
+	}
+
+	public void setTracingSampleRate(double tracingSampleRate) {
+		this.tracingSampleRate = tracingSampleRate;
+	}
+
+	public boolean isTracingTailSamplingEnabled() {
+		return tracingTailSamplingEnabled;
+	}
+
+	public void setTracingTailSamplingEnabled(boolean tracingTailSamplingEnabled) {
+		this.tracingTailSamplingEnabled = tracingTailSamplingEnabled;
+	}
+
+	public int getTracingTailLatencyThreshold() {
+		return tracingTailLatencyThreshold;
+	}
+
+	public void setTracingTailLatencyThreshold(int tracingTailLatencyThreshold) {
+		this.tracingTailLatencyThreshold = tracingTailLatencyThreshold;
+	}
+
+	public int getTracingTailMaxTraces() {
+		return tracingTailMaxTraces;
+	}
+
+	public void setTracingTailMaxTraces(int tracingTailMaxTraces) {
+		this.tracingTailMaxTraces = tracingTailMaxTraces;
+	}
+
+	public String getTracingFile() {
+		return tracingFile;
+	}
+
+	public void setTracingFile(String tracingFile) {
+		this.tracingFile = tracingFile;
+	}
+
+	public String getSliMode() {
+		return sliMode;
+	}
+
+	public void setSliMode(String sliMode) {
+		this.sliMode = sliMode;
+	}
+
+	public int getSliInterval() {
+		return sliInterval;
+	}
+
+	public void setSliInterval(int sliInterval) {
+		this.sliInterval = sliInterval;
+	}
+
+	public double getSliLogSampleRate() {
+		return sliLogSampleRate;
+	}
+
+	public void setSliLogSampleRate(double sliLogSampleRate) {
+		this.sliLogSampleRate = sliLogSampleRate;
+	}
+
+	public String getFlightRecordingAccountHashKey() {
+		return flightRecordingAccountHashKey;
+	}
+
+	public void setFlightRecordingAccountHashKey(String flightRecordingAccountHashKey) {
+		this.flightRecordingAccountHashKey = flightRecordingAccountHashKey;
+	}
+
+	public int getTracingTailMaxTraceAge() {
+		return tracingTailMaxTraceAge;
+	}
+
+	public void setTracingTailMaxTraceAge(int tracingTailMaxTraceAge) {
+		this.tracingTailMaxTraceAge = tracingTailMaxTraceAge;
+	}
+
+	public List<String> getSliAspectLoggers() {
+		return sliAspectLoggers;
+	}
+
+	public void setSliAspectLoggers(List<String> sliAspectLoggers) {
+		this.sliAspectLoggers = sliAspectLoggers;
+	}
+
 }
@@ -0,0 +1,63 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker and semaphore bulkhead for one downstream dependency. The bulkhead is outermost,
+ * so calls rejected for lack of a permit never count against the breaker. Rejections surface as
+ * BulkheadFullException or CallNotPermittedException. A guard built without a breaker passes calls through.
+ */
+public class DependencyGuard {
+	private final CircuitBreaker circuitBreaker;
+	private final Bulkhead bulkhead;
+
+	public DependencyGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+		this.circuitBreaker = circuitBreaker;
+		this.bulkhead = bulkhead;
+	}
+
+	public static DependencyGuard passThrough() {
+		return new DependencyGuard(null, null);
+	}
+
+	public <T> T call(Supplier<T> supplier) {
+		if (circuitBreaker == null) {
+			return supplier.get();
+		}
+		return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, supplier)).get();
+	}
+
+	public <T> CompletableFuture<T> callAsync(Supplier<CompletionStage<T>> supplier) {
+		if (circuitBreaker == null) {
+			return supplier.get().toCompletableFuture();
+		}
+		return Bulkhead.decorateCompletionStage(bulkhead, CircuitBreaker.decorateCompletionStage(circuitBreaker, supplier))
+				.get().toCompletableFuture();
+	}
+
+	/**
+	 * Guards a Mono; the call is admitted, and counted, when it is subscribed to.
+	 */
+	public <T> Mono<T> mono(Mono<T> call) {
+		if (circuitBreaker == null) {
+			return call;
+		}
+		return call.transform(CircuitBreakerOperator.of(circuitBreaker)).transform(BulkheadOperator.of(bulkhead));
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public Bulkhead getBulkhead() {
+		return bulkhead;
+	}
+}
@@ -0,0 +1,84 @@
+package qslv.reservefunds.rest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Appends spans to a local file, one JSON object per line, so traces can be inspected without a
+ * collector. Fields: traceId, spanId, parentSpanId, name, kind, start (epoch nanos),
+ * durationMicros, status and attributes.
+ */
+public class FileSpanExporter implements SpanExporter {
+	private static final Logger log = LoggerFactory.getLogger(FileSpanExporter.class);
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final BufferedWriter writer;
+
+	public FileSpanExporter(Path file) throws IOException {
+		writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+	@Override
+	public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+		try {
+			for (SpanData span : spans) {
+				writer.write(mapper.writeValueAsString(toMap(span)));
+				writer.newLine();
+			}
+			writer.flush();
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException ex) {
+			log.warn("export failed {}", ex.getLocalizedMessage());
+			return CompletableResultCode.ofFailure();
+		}
+	}
+
+	static Map<String, Object> toMap(SpanData span) {
+		LinkedHashMap<String, Object> line = new LinkedHashMap<String, Object>();
+		line.put("traceId", span.getTraceId());
+		line.put("spanId", span.getSpanId());
+		line.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+		line.put("name", span.getName());
+		line.put("kind", span.getKind().name());
+		line.put("start", span.getStartEpochNanos());
+		line.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1000L);
+		line.put("status", span.getStatus().getStatusCode().name());
+		LinkedHashMap<String, Object> attributes = new LinkedHashMap<String, Object>();
+		for (Map.Entry<AttributeKey<?>, Object> attribute : span.getAttributes().asMap().entrySet()) {
+			attributes.put(attribute.getKey().getKey(), attribute.getValue());
+		}
+		line.put("attributes", attributes);
+		return line;
+	}
+
+	@Override
+	public CompletableResultCode flush() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public synchronized CompletableResultCode shutdown() {
+		try {
+			writer.close();
+			return CompletableResultCode.ofSuccess();
+		} catch (IOException ex) {
+			return CompletableResultCode.ofFailure();
+		}
+	}
+}
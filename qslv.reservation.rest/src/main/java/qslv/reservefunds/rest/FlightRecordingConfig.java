@@ -0,0 +1,25 @@
+package qslv.reservefunds.rest;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Supplies ReserveFundsEvent with qslv.flight-recording-account-hash-key in every profile, so
+ * recordings taken by any means carry keyed account hashes.
+ */
+@Configuration
+public class FlightRecordingConfig {
+	@Autowired
+	private ConfigProperties config;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+
+	@PostConstruct
+	public void init() {
+		ReserveFundsEvent.setAccountHashKey(config.getFlightRecordingAccountHashKey());
+	}
+}
@@ -0,0 +1,128 @@
+package qslv.reservefunds.rest;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * On-demand Flight Recorder capture as the actuator endpoint flightrecording, served on the
+ * management port only. POST /actuator/flightrecording?seconds=n records for n seconds with the
+ * qslv.flight-recording-settings configuration, ReserveFundsEvent included, and returns the .jfr file.
+ * The events that copy the process environment and system properties are switched off, so
+ * credentials and the account hash key never end up in a recording. One recording at a time;
+ * the request thread is held for the duration.
+ */
+@Component
+@WebEndpoint(id = "flightrecording")
+@Profile("!reactive")
+public class FlightRecordingEndpoint {
+	private static final Logger log = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+	static final String[] DISABLED_EVENTS = { "jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty" };
+	private static final int STATUS_CONFLICT = 409;
+	private final AtomicBoolean recording = new AtomicBoolean(false);
+
+	@Autowired
+	private ConfigProperties config;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+
+	@WriteOperation(produces = "application/octet-stream")
+	public WebEndpointResponse<Resource> flightRecording(@Nullable Integer seconds) throws IOException {
+		int duration = seconds == null ? 30 : seconds;
+		log.debug("flightRecording ENTRY {} seconds", duration);
+		if (duration < 1 || duration > config.getFlightRecordingMaxSeconds()) {
+			return new WebEndpointResponse<Resource>(WebEndpointResponse.STATUS_BAD_REQUEST);
+		}
+		if (false == recording.compareAndSet(false, true)) {
+			return new WebEndpointResponse<Resource>(STATUS_CONFLICT);
+		}
+		try {
+			return record(duration);
+		} finally {
+			recording.set(false);
+		}
+	}
+
+	private WebEndpointResponse<Resource> record(int seconds) throws IOException {
+		Map<String, String> settings;
+		try {
+			settings = settings(Configuration.getConfiguration(config.getFlightRecordingSettings()));
+		} catch (ParseException ex) {
+			log.warn("flightRecording settings {} unreadable. {}", config.getFlightRecordingSettings(), ex.getLocalizedMessage());
+			return new WebEndpointResponse<Resource>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+		}
+		try (Recording recording = new Recording(settings)) {
+			recording.setName("reservefunds-" + System.currentTimeMillis());
+			recording.enable(ReserveFundsEvent.class);
+			recording.start();
+			try {
+				Thread.sleep(seconds * 1000L);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return new WebEndpointResponse<Resource>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+			} finally {
+				recording.stop();
+			}
+
+			Path file = Files.createTempFile("reservefunds-", ".jfr");
+			recording.dump(file);
+			log.debug("flightRecording EXIT {} bytes", Files.size(file));
+			return new WebEndpointResponse<Resource>(new TemporaryFileResource(file.toFile()), WebEndpointResponse.STATUS_OK);
+		}
+	}
+
+	static Map<String, String> settings(Configuration configuration) {
+		Map<String, String> settings = new HashMap<String, String>(configuration.getSettings());
+		for (String event : DISABLED_EVENTS) {
+			settings.put(event + "#enabled", "false");
+		}
+		return settings;
+	}
+
+	/**
+	 * The recording file, deleted once the response has been written.
+	 */
+	static final class TemporaryFileResource extends FileSystemResource {
+		TemporaryFileResource(File file) {
+			super(file);
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new FilterInputStream(super.getInputStream()) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						Files.deleteIfExists(getFile().toPath());
+					}
+				}
+			};
+		}
+	}
+}
@@ -1,19 +1,34 @@
 package qslv.reservefunds.rest;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import qslv.data.Account;
 import qslv.data.DebitCard;
 import qslv.data.OverdraftInstruction;
@@ -25,33 +40,73 @@ public class JdbcDao {
 
 	@Autowired
 	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	@Qualifier("accountDbGuard")
+	private DependencyGuard accountDbGuard;
+	@Autowired(required = false)
+	private Tracer tracer = Tracing.NOOP_TRACER;
+	@Autowired(required = false)
+	private SliAggregator sliAggregator;
 
 	public void setJdbcTemplate(JdbcTemplate template) {
 		this.jdbcTemplate = template;
 	}
+	public void setAccountDbGuard(DependencyGuard accountDbGuard) {
+		this.accountDbGuard = accountDbGuard;
+	}
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer;
+	}
+	public void setSliAggregator(SliAggregator sliAggregator) {
+		this.sliAggregator = sliAggregator;
+	}
+
+	// runs the query inside the AccountDB circuit breaker and bulkhead, in its own span.
+	private <T> T guarded(String name, String key, Supplier<T> query) {
+		ReserveFundsEvent event = ReserveFundsEvent.start();
+		long start = System.nanoTime();
+		Span span = tracer.spanBuilder(name).setSpanKind(SpanKind.CLIENT).setAttribute("db.system", "postgresql").startSpan();
+		String outcome = ReserveFundsEvent.ERROR;
+		try (Scope scope = span.makeCurrent()) {
+			T result = accountDbGuard == null ? query.get() : accountDbGuard.call(query);
+			outcome = ReserveFundsEvent.SUCCESS;
+			return result;
+		} catch (RuntimeException ex) {
+			Tracing.error(span, ex);
+			throw ex;
+		} finally {
+			span.end();
+			event.end(name, key, outcome, 0);
+			if (sliAggregator != null) {
+				sliAggregator.record("jdbc::AccountDB", System.nanoTime() - start, outcome == ReserveFundsEvent.ERROR);
+			}
+		}
+	}
 
 	public final static String getDebitCardData_sql = 
 			"SELECT d.account_no, d.lifecycle_status_cd AS debit_lifecycle_status_cd, a.lifecycle_status_cd AS account_lifecycle_status_cd"
 			+ " FROM debit_card d, account a "
 			+ " WHERE a.account_no = d.account_no AND debit_card_no = ?; ";
 
-	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class})
+	// row mappers are stateless, so one instance serves every call instead of an anonymous class per query.
+	private static final RowMapper<DebitCard> debitCardMapper = new RowMapper<DebitCard>() {
+		public DebitCard mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DebitCard res = new DebitCard();
+			res.setAccount( new Account() );
+
+			res.setDebitCardLifeCycleStatus(rs.getString(2));
+			res.getAccount().setAccountLifeCycleStatus(rs.getString(3));
+			res.getAccount().setAccountNumber(rs.getString(1));
+			return res;
+		}
+	};
+
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
 	public DebitCard getDebitCardAndAccount(final String debitCardNumber) {
 		log.debug("getDebitCardAccount ENTRY {}", debitCardNumber);
 
-		List<DebitCard> resources = jdbcTemplate.query(getDebitCardData_sql,
-				new RowMapper<DebitCard>() {
-					public DebitCard mapRow(ResultSet rs, int rowNum) throws SQLException {
-						DebitCard res = new DebitCard();
-						res.setAccount( new Account() );
-						
-						res.setDebitCardNumber(debitCardNumber);
-						res.setDebitCardLifeCycleStatus(rs.getString(2));
-						res.getAccount().setAccountLifeCycleStatus(rs.getString(3));
-						res.getAccount().setAccountNumber(rs.getString(1));
-						return res;
-					}
-				}, debitCardNumber);
+		List<DebitCard> resources = guarded("jdbc::getDebitCardAndAccount", debitCardNumber, () -> jdbcTemplate.query(getDebitCardData_sql,
+				debitCardMapper, debitCardNumber));
 		
 		if ( resources == null || resources.size() != 1 ) {
 			log.error("setupAccount, ERROR=%d rows returned, SQL=%s", resources.size(), getDebitCardData_sql);
@@ -59,27 +114,32 @@ public class JdbcDao {
 					String.format("%d (!= 1) account - debit_card rows returned.", resources.size()));
 		}
 		
-		log.debug("getDebitCardAccount DebitCard {} {}", resources.get(0).getDebitCardNumber(), resources.get(0).getDebitCardLifeCycleStatus(),
-				resources.get(0).getAccount().getAccountNumber(), resources.get(0).getAccount().getAccountLifeCycleStatus());
+		resources.get(0).setDebitCardNumber(debitCardNumber);
+		if (log.isDebugEnabled()) {
+			log.debug("getDebitCardAccount DebitCard {} {} {} {}", resources.get(0).getDebitCardNumber(), resources.get(0).getDebitCardLifeCycleStatus(),
+					resources.get(0).getAccount().getAccountNumber(), resources.get(0).getAccount().getAccountLifeCycleStatus());
+		}
 		return resources.get(0);
 	}
 
 	public final static String getAccount_sql = "SELECT account_no, lifecycle_status_cd FROM account WHERE account_no = ?; ";
 
-	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class})
+	private static final RowMapper<Account> accountMapper = new RowMapper<Account>() {
+		public Account mapRow(ResultSet rs, int rowNum) throws SQLException {
+			Account res = new Account();
+
+			res.setAccountNumber(rs.getString(1));
+			res.setAccountLifeCycleStatus(rs.getString(2));
+			return res;
+		}
+	};
+
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
 	public Account getAccount(final String accountNumber) {
 		log.debug("getAccount ENTRY {}", accountNumber);
 
-		List<Account> resources = jdbcTemplate.query(getAccount_sql,
-				new RowMapper<Account>() {
-					public Account mapRow(ResultSet rs, int rowNum) throws SQLException {
-						Account res = new Account();
-						
-						res.setAccountNumber(rs.getString(1));
-						res.setAccountLifeCycleStatus(rs.getString(2));
-						return res;
-					}
-				}, accountNumber);
+		List<Account> resources = guarded("jdbc::getAccount", accountNumber, () -> jdbcTemplate.query(getAccount_sql,
+				accountMapper, accountNumber));
 		
 		if ( resources == null || resources.size() != 1 ) {
 			log.error("setupAccount, ERROR=%d rows returned, SQL=%s", resources.size(), getAccount_sql);
@@ -97,24 +157,26 @@ public class JdbcDao {
 			+ " WHERE o.account_no = ?"
 			+ " AND o.overdraft_account_no = oda.account_no"
 			+ " ORDER BY o.sequence asc;";
+
+	private static final RowMapper<OverdraftInstruction> overdraftInstructionMapper = new RowMapper<OverdraftInstruction>() {
+		public OverdraftInstruction mapRow(ResultSet rs, int rowNum) throws SQLException {
+			OverdraftInstruction res = new OverdraftInstruction();
+			res.setOverdraftAccount(new Account());
+
+			res.getOverdraftAccount().setAccountNumber(rs.getString(1));
+			res.getOverdraftAccount().setAccountLifeCycleStatus(rs.getString(2));
+			res.setInstructionLifecycleStatus(rs.getString(3));
+			res.setEffectiveStart(rs.getDate(4).toLocalDate().atStartOfDay() );
+			res.setEffectiveEnd(rs.getDate(5) == null ? null :rs.getDate(5).toLocalDate().atStartOfDay());
+			return res;
+		}
+	};
 	
 	public List<OverdraftInstruction> getOverdraftInstructions(final String accountNumber) {
 		log.debug("getOverdraftInstructions ENTRY {}", accountNumber);
 
-		List<OverdraftInstruction> resources = jdbcTemplate.query(getOverdraftInstructions_sql,
-				new RowMapper<OverdraftInstruction>() {
-					public OverdraftInstruction mapRow(ResultSet rs, int rowNum) throws SQLException {
-						OverdraftInstruction res = new OverdraftInstruction();
-						res.setOverdraftAccount(new Account());
-						
-						res.getOverdraftAccount().setAccountNumber(rs.getString(1));
-						res.getOverdraftAccount().setAccountLifeCycleStatus(rs.getString(2));
-						res.setInstructionLifecycleStatus(rs.getString(3));
-						res.setEffectiveStart(rs.getDate(4).toLocalDate().atStartOfDay() );
-						res.setEffectiveEnd(rs.getDate(5) == null ? null :rs.getDate(5).toLocalDate().atStartOfDay());
-						return res;
-					}
-				}, accountNumber);
+		List<OverdraftInstruction> resources = guarded("jdbc::getOverdraftInstructions", accountNumber, () -> jdbcTemplate.query(getOverdraftInstructions_sql,
+				overdraftInstructionMapper, accountNumber));
 		
 		if ( resources == null || resources.size() == 0 ) {
 			log.error("setupAccount, ERROR=%d rows returned, SQL=%s", resources.size(), getOverdraftInstructions_sql);
@@ -125,4 +187,187 @@ public class JdbcDao {
 		log.debug("getOverdraftInstructions size {}", resources.size());
 		return resources;
 	}
-}
\ No newline at end of file
+
+	private final static String overdraftInstructionJoin = 
+			" LEFT JOIN (overdraft_instruction o JOIN account oda ON o.overdraft_account_no = oda.account_no)";
+
+	public final static String getDebitCardAccountAndOverdraft_sql = 
+			"SELECT d.account_no, d.lifecycle_status_cd AS debit_lifecycle_status_cd, a.lifecycle_status_cd AS account_lifecycle_status_cd,"
+			+ " o.overdraft_account_no, oda.lifecycle_status_cd as od_lifecycle_status, o.lifecycle_status_cd, o.effective_start_dt, o.effective_end_dt"
+			+ " FROM debit_card d"
+			+ " JOIN account a ON a.account_no = d.account_no"
+			+ overdraftInstructionJoin + " ON o.account_no = d.account_no"
+			+ " WHERE d.debit_card_no = ?"
+			+ " ORDER BY o.sequence asc;";
+
+	/**
+	 * Debit card, account standing and ordered overdraft instructions in one round trip.
+	 * Unlike getOverdraftInstructions, an account without overdraft instructions is not an error.
+	 */
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
+	public CombinedLookup getDebitCardAccountAndOverdraft(final String debitCardNumber) {
+		log.debug("getDebitCardAccountAndOverdraft ENTRY {}", debitCardNumber);
+
+		CombinedLookup lookup = guarded("jdbc::getDebitCardAccountAndOverdraft", debitCardNumber, () -> jdbcTemplate.query(getDebitCardAccountAndOverdraft_sql,
+				new ResultSetExtractor<CombinedLookup>() {
+					public CombinedLookup extractData(ResultSet rs) throws SQLException {
+						CombinedLookup res = null;
+						while (rs.next()) {
+							if (res == null) {
+								res = new CombinedLookup();
+								res.setDebitCard(new DebitCard());
+								res.getDebitCard().setAccount(new Account());
+								res.getDebitCard().setDebitCardNumber(debitCardNumber);
+								res.getDebitCard().setDebitCardLifeCycleStatus(rs.getString(2));
+								res.getDebitCard().getAccount().setAccountNumber(rs.getString(1));
+								res.getDebitCard().getAccount().setAccountLifeCycleStatus(rs.getString(3));
+								res.setAccount(res.getDebitCard().getAccount());
+							}
+							addOverdraftInstruction(rs, 4, res.getOverdraftInstructions());
+						}
+						return res;
+					}
+				}, debitCardNumber));
+
+		if ( lookup == null ) {
+			log.error("getDebitCardAccountAndOverdraft, ERROR=0 rows returned, SQL={}", getDebitCardAccountAndOverdraft_sql);
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account - debit_card rows returned.", 0));
+		}
+
+		log.debug("getDebitCardAccountAndOverdraft EXIT {} overdraft instructions", lookup.getOverdraftInstructions().size());
+		return lookup;
+	}
+
+	public final static String getAccountAndOverdraft_sql = 
+			"SELECT a.account_no, a.lifecycle_status_cd,"
+			+ " o.overdraft_account_no, oda.lifecycle_status_cd as od_lifecycle_status, o.lifecycle_status_cd, o.effective_start_dt, o.effective_end_dt"
+			+ " FROM account a"
+			+ overdraftInstructionJoin + " ON o.account_no = a.account_no"
+			+ " WHERE a.account_no = ?"
+			+ " ORDER BY o.sequence asc;";
+
+	/**
+	 * Account standing and ordered overdraft instructions in one round trip.
+	 */
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
+	public CombinedLookup getAccountAndOverdraft(final String accountNumber) {
+		log.debug("getAccountAndOverdraft ENTRY {}", accountNumber);
+
+		CombinedLookup lookup = guarded("jdbc::getAccountAndOverdraft", accountNumber, () -> jdbcTemplate.query(getAccountAndOverdraft_sql,
+				new ResultSetExtractor<CombinedLookup>() {
+					public CombinedLookup extractData(ResultSet rs) throws SQLException {
+						CombinedLookup res = null;
+						while (rs.next()) {
+							if (res == null) {
+								res = new CombinedLookup();
+								res.setAccount(new Account());
+								res.getAccount().setAccountNumber(rs.getString(1));
+								res.getAccount().setAccountLifeCycleStatus(rs.getString(2));
+							}
+							addOverdraftInstruction(rs, 3, res.getOverdraftInstructions());
+						}
+						return res;
+					}
+				}, accountNumber));
+
+		if ( lookup == null ) {
+			log.error("getAccountAndOverdraft, ERROR=0 rows returned, SQL={}", getAccountAndOverdraft_sql);
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account_balance rows returned.", 0));
+		}
+
+		log.debug("getAccountAndOverdraft EXIT {} overdraft instructions", lookup.getOverdraftInstructions().size());
+		return lookup;
+	}
+
+	// the LEFT JOIN yields one row with null overdraft columns when there are no instructions.
+	private static void addOverdraftInstruction(ResultSet rs, int column, List<OverdraftInstruction> instructions) throws SQLException {
+		String overdraftAccountNumber = rs.getString(column);
+		if (overdraftAccountNumber == null) {
+			return;
+		}
+		OverdraftInstruction res = new OverdraftInstruction();
+		res.setOverdraftAccount(new Account());
+		res.getOverdraftAccount().setAccountNumber(overdraftAccountNumber);
+		res.getOverdraftAccount().setAccountLifeCycleStatus(rs.getString(column + 1));
+		res.setInstructionLifecycleStatus(rs.getString(column + 2));
+		res.setEffectiveStart(rs.getDate(column + 3).toLocalDate().atStartOfDay() );
+		res.setEffectiveEnd(rs.getDate(column + 4) == null ? null :rs.getDate(column + 4).toLocalDate().atStartOfDay());
+		instructions.add(res);
+	}
+
+	public final static String getDebitCardsAndAccounts_sql = 
+			"SELECT d.debit_card_no, d.account_no, d.lifecycle_status_cd AS debit_lifecycle_status_cd, a.lifecycle_status_cd AS account_lifecycle_status_cd"
+			+ " FROM debit_card d, account a "
+			+ " WHERE a.account_no = d.account_no AND debit_card_no = ANY(?); ";
+
+	/**
+	 * Set-based getDebitCardAndAccount. Returns the debit cards found, keyed by debit card number;
+	 * numbers with no row are absent from the map.
+	 */
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
+	public Map<String, DebitCard> getDebitCardsAndAccounts(final Collection<String> debitCardNumbers) {
+		log.debug("getDebitCardsAndAccounts ENTRY {} debit cards", debitCardNumbers.size());
+
+		Map<String, DebitCard> resources = guarded("jdbc::getDebitCardsAndAccounts", null, () -> jdbcTemplate.query(getDebitCardsAndAccounts_sql, arrayParameter(debitCardNumbers),
+				new ResultSetExtractor<Map<String, DebitCard>>() {
+					public Map<String, DebitCard> extractData(ResultSet rs) throws SQLException {
+						HashMap<String, DebitCard> found = new HashMap<String, DebitCard>(debitCardNumbers.size() * 2);
+						while (rs.next()) {
+							DebitCard res = new DebitCard();
+							res.setAccount( new Account() );
+
+							res.setDebitCardNumber(rs.getString(1));
+							res.setDebitCardLifeCycleStatus(rs.getString(3));
+							res.getAccount().setAccountLifeCycleStatus(rs.getString(4));
+							res.getAccount().setAccountNumber(rs.getString(2));
+							found.put(res.getDebitCardNumber(), res);
+						}
+						return found;
+					}
+				}));
+
+		log.debug("getDebitCardsAndAccounts EXIT {} rows", resources.size());
+		return resources;
+	}
+
+	public final static String getAccounts_sql = "SELECT account_no, lifecycle_status_cd FROM account WHERE account_no = ANY(?); ";
+
+	/**
+	 * Set-based getAccount. Returns the accounts found, keyed by account number;
+	 * numbers with no row are absent from the map.
+	 */
+	@ExternalResourceSLI(value="jdbc::AccountDB", ait = "#{@configProperties.aitid}", remoteFailures= {DataAccessException.class, CallNotPermittedException.class, BulkheadFullException.class})
+	public Map<String, Account> getAccounts(final Collection<String> accountNumbers) {
+		log.debug("getAccounts ENTRY {} accounts", accountNumbers.size());
+
+		Map<String, Account> resources = guarded("jdbc::getAccounts", null, () -> jdbcTemplate.query(getAccounts_sql, arrayParameter(accountNumbers),
+				new ResultSetExtractor<Map<String, Account>>() {
+					public Map<String, Account> extractData(ResultSet rs) throws SQLException {
+						HashMap<String, Account> found = new HashMap<String, Account>(accountNumbers.size() * 2);
+						while (rs.next()) {
+							Account res = new Account();
+
+							res.setAccountNumber(rs.getString(1));
+							res.setAccountLifeCycleStatus(rs.getString(2));
+							found.put(res.getAccountNumber(), res);
+						}
+						return found;
+					}
+				}));
+
+		log.debug("getAccounts EXIT {} rows", resources.size());
+		return resources;
+	}
+
+	// binds the keys as a single varchar[] so the statement text is the same for any batch size.
+	private static PreparedStatementSetter arrayParameter(final Collection<String> keys) {
+		return new PreparedStatementSetter() {
+			public void setValues(PreparedStatement ps) throws SQLException {
+				Array array = ps.getConnection().createArrayOf("varchar", keys.toArray());
+				ps.setArray(1, array);
+			}
+		};
+	}
+}
@@ -0,0 +1,43 @@
+package qslv.reservefunds.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lookup cache eviction as the actuator endpoint lookupcache, served on the management port only.
+ * DELETE /actuator/lookupcache/debitcard/{debitCardNumber} or /actuator/lookupcache/account/{accountNumber}
+ * drops an entry when its status changes.
+ */
+@Component
+@WebEndpoint(id = "lookupcache")
+public class LookupCacheEndpoint {
+	private static final Logger log = LoggerFactory.getLogger(LookupCacheEndpoint.class);
+	static final String DEBIT_CARD = "debitcard";
+	static final String ACCOUNT = "account";
+
+	@Autowired
+	private AccountLookup accountLookup;
+
+	public void setAccountLookup(AccountLookup accountLookup) {
+		this.accountLookup = accountLookup;
+	}
+
+	@DeleteOperation
+	public WebEndpointResponse<Void> evict(@Selector String type, @Selector String key) {
+		log.debug("evict ENTRY {}", type);
+		if (DEBIT_CARD.equalsIgnoreCase(type)) {
+			accountLookup.evictDebitCard(key);
+		} else if (ACCOUNT.equalsIgnoreCase(type)) {
+			accountLookup.evictAccount(key);
+		} else {
+			return new WebEndpointResponse<Void>(WebEndpointResponse.STATUS_BAD_REQUEST);
+		}
+		return new WebEndpointResponse<Void>(WebEndpointResponse.STATUS_NO_CONTENT);
+	}
+}
@@ -0,0 +1,125 @@
+package qslv.reservefunds.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collects single-key lookups from concurrent callers and runs them as one set-based query.
+ * A batch is flushed when maxBatchSize keys are pending or windowMicros after the first key
+ * arrived, whichever comes first. Callers block until their batch completes; a key missing from
+ * the loader's result yields null. Duplicate keys within a batch are queried once.
+ */
+public class MicroBatcher<K, V> {
+	private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+	private final String name;
+	private final Function<Collection<K>, Map<K, V>> loader;
+	private final int maxBatchSize;
+	private final long windowMicros;
+	private final ScheduledExecutorService scheduler;
+	private final DistributionSummary batchSize;
+
+	private final ConcurrentLinkedQueue<Pending<K, V>> queue = new ConcurrentLinkedQueue<Pending<K, V>>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	public MicroBatcher(String name, Function<Collection<K>, Map<K, V>> loader, int maxBatchSize, long windowMicros,
+			ScheduledExecutorService scheduler, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.loader = loader;
+		this.maxBatchSize = maxBatchSize;
+		this.windowMicros = windowMicros;
+		this.scheduler = scheduler;
+		this.batchSize = DistributionSummary.builder("reservefunds.lookup.batch.size")
+				.tag("query", name)
+				.register(meterRegistry);
+	}
+
+	public V get(K key) {
+		Pending<K, V> request = new Pending<K, V>(key);
+		queue.add(request);
+		if (pending.incrementAndGet() >= maxBatchSize) {
+			scheduler.execute(this::flush);
+		} else if (scheduled.compareAndSet(false, true)) {
+			scheduler.schedule(this::flushScheduled, windowMicros, TimeUnit.MICROSECONDS);
+		}
+		try {
+			return request.result.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			if (ex.getCause() instanceof Error) {
+				throw (Error) ex.getCause();
+			}
+			throw ex;
+		}
+	}
+
+	private void flushScheduled() {
+		scheduled.set(false);
+		flush();
+	}
+
+	private void flush() {
+		HashMap<K, List<Pending<K, V>>> batch = new HashMap<K, List<Pending<K, V>>>();
+		int drained = 0;
+		Pending<K, V> request;
+		while (drained < maxBatchSize && (request = queue.poll()) != null) {
+			pending.decrementAndGet();
+			drained++;
+			batch.computeIfAbsent(request.key, key -> new ArrayList<Pending<K, V>>(1)).add(request);
+		}
+		if (pending.get() > 0 && scheduled.compareAndSet(false, true)) {
+			scheduler.execute(this::flushScheduled);
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		batchSize.record(batch.size());
+		log.debug("{} flush {} keys for {} callers", name, batch.size(), drained);
+		try {
+			Map<K, V> found = loader.apply(batch.keySet());
+			for (Map.Entry<K, List<Pending<K, V>>> entry : batch.entrySet()) {
+				V value = found.get(entry.getKey());
+				for (Pending<K, V> waiting : entry.getValue()) {
+					waiting.result.complete(value);
+				}
+			}
+		} catch (Throwable ex) {
+			// Errors too: flush runs on the scheduler, where an escaping throwable would leave every caller waiting
+			for (List<Pending<K, V>> waitingList : batch.values()) {
+				for (Pending<K, V> waiting : waitingList) {
+					waiting.result.completeExceptionally(ex);
+				}
+			}
+		}
+	}
+
+	private static class Pending<K, V> {
+		final K key;
+		final CompletableFuture<V> result = new CompletableFuture<V>();
+
+		Pending(K key) {
+			this.key = key;
+		}
+	}
+}
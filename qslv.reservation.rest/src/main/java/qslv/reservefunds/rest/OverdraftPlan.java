@@ -0,0 +1,97 @@
+package qslv.reservefunds.rest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import qslv.data.OverdraftInstruction;
+
+/**
+ * Overdraft instructions for one account, pre-evaluated at a point in time.
+ * Holds the overdraft account numbers that are eligible now, in instruction sequence order,
+ * every overdraft account the instructions named (eligible or not, for cache eviction)
+ * and the instant (epoch millis) at which the next effectiveStart/effectiveEnd boundary
+ * makes the plan stale. Immutable; the account array must not be modified by callers.
+ */
+public final class OverdraftPlan {
+	private static final Logger log = LoggerFactory.getLogger(OverdraftPlan.class);
+	private static final String[] NO_ACCOUNTS = new String[0];
+
+	private final String[] overdraftAccounts;
+	private final String[] referencedAccounts;
+	private final long validUntil;
+
+	private OverdraftPlan(String[] overdraftAccounts, String[] referencedAccounts, long validUntil) {
+		this.overdraftAccounts = overdraftAccounts;
+		this.referencedAccounts = referencedAccounts;
+		this.validUntil = validUntil;
+	}
+
+	public static OverdraftPlan compile(List<OverdraftInstruction> instructions, LocalDateTime now) {
+		ArrayList<String> eligible = new ArrayList<String>(instructions.size());
+		String[] referenced = new String[instructions.size()];
+		int next = 0;
+		LocalDateTime nextBoundary = null;
+
+		for (OverdraftInstruction instruction : instructions) {
+			LocalDateTime start = instruction.getEffectiveStart();
+			LocalDateTime end = instruction.getEffectiveEnd();
+			referenced[next++] = instruction.getOverdraftAccount().getAccountNumber();
+			if (start.isAfter(now)) {
+				nextBoundary = earliest(nextBoundary, start);
+			}
+			if (end != null && end.isAfter(now)) {
+				nextBoundary = earliest(nextBoundary, end);
+			}
+
+			if ( "EF".equals(instruction.getInstructionLifecycleStatus())
+					&& now.isAfter(start)
+					&& (end == null || now.isBefore(end))
+					&& "EF".equals(instruction.getOverdraftAccount().getAccountLifeCycleStatus()) ) {
+				eligible.add(instruction.getOverdraftAccount().getAccountNumber());
+			} else {
+				log.debug("Overdraft Instruction not valid. {}", instruction);
+			}
+		}
+
+		return new OverdraftPlan(eligible.toArray(NO_ACCOUNTS), referenced, nextBoundary == null ? Long.MAX_VALUE
+				: nextBoundary.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+	}
+
+	private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+		return (current == null || candidate.isBefore(current)) ? candidate : current;
+	}
+
+	public String[] getOverdraftAccounts() {
+		return overdraftAccounts;
+	}
+
+	public long getValidUntil() {
+		return validUntil;
+	}
+
+	public boolean contains(String accountNumber) {
+		return find(overdraftAccounts, accountNumber);
+	}
+
+	/**
+	 * True when any instruction named the account, including ones left out of the plan because the
+	 * account was not in good standing; a change to such an account can make the plan stale too.
+	 */
+	public boolean references(String accountNumber) {
+		return find(referencedAccounts, accountNumber);
+	}
+
+	private static boolean find(String[] accounts, String accountNumber) {
+		for (String account : accounts) {
+			if (account.equals(accountNumber)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
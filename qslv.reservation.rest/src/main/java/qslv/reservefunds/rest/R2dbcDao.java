@@ -0,0 +1,131 @@
+package qslv.reservefunds.rest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+
+import qslv.data.Account;
+import qslv.data.DebitCard;
+import qslv.data.OverdraftInstruction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of JdbcDao for the reactive profile. Same SQL and row mapping, run over
+ * R2DBC against the Postgres wire protocol; the JDBC ? placeholder becomes the native $1 marker.
+ * Each query runs inside the AccountDB circuit breaker and bulkhead.
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcDao {
+	private static final Logger log = LoggerFactory.getLogger(R2dbcDao.class);
+
+	private static final String getDebitCardData_sql = bindMarkers(JdbcDao.getDebitCardData_sql);
+	private static final String getAccount_sql = bindMarkers(JdbcDao.getAccount_sql);
+	private static final String getOverdraftInstructions_sql = bindMarkers(JdbcDao.getOverdraftInstructions_sql);
+
+	@Autowired
+	private DatabaseClient databaseClient;
+	@Autowired
+	@Qualifier("accountDbGuard")
+	private DependencyGuard accountDbGuard;
+
+	public void setDatabaseClient(DatabaseClient databaseClient) {
+		this.databaseClient = databaseClient;
+	}
+	public void setAccountDbGuard(DependencyGuard accountDbGuard) {
+		this.accountDbGuard = accountDbGuard;
+	}
+
+	private static String bindMarkers(String jdbcSql) {
+		return jdbcSql.replace("?", "$1").replace(";", "");
+	}
+
+	private <T> Mono<T> guarded(Mono<T> query) {
+		return accountDbGuard == null ? query : accountDbGuard.mono(query);
+	}
+
+	public Mono<DebitCard> getDebitCardAndAccount(final String debitCardNumber) {
+		log.debug("getDebitCardAccount ENTRY {}", debitCardNumber);
+
+		return guarded(databaseClient.execute(getDebitCardData_sql)
+				.bind(0, debitCardNumber)
+				.map((row, metadata) -> {
+					DebitCard res = new DebitCard();
+					res.setAccount(new Account());
+
+					res.setDebitCardNumber(debitCardNumber);
+					res.setDebitCardLifeCycleStatus(row.get(1, String.class));
+					res.getAccount().setAccountLifeCycleStatus(row.get(2, String.class));
+					res.getAccount().setAccountNumber(row.get(0, String.class));
+					return res;
+				})
+				.all()
+				.collectList())
+			.map(resources -> exactlyOne(resources, "account - debit_card", getDebitCardData_sql));
+	}
+
+	public Mono<Account> getAccount(final String accountNumber) {
+		log.debug("getAccount ENTRY {}", accountNumber);
+
+		return guarded(databaseClient.execute(getAccount_sql)
+				.bind(0, accountNumber)
+				.map((row, metadata) -> {
+					Account res = new Account();
+
+					res.setAccountNumber(row.get(0, String.class));
+					res.setAccountLifeCycleStatus(row.get(1, String.class));
+					return res;
+				})
+				.all()
+				.collectList())
+			.map(resources -> exactlyOne(resources, "account_balance", getAccount_sql));
+	}
+
+	public Mono<List<OverdraftInstruction>> getOverdraftInstructions(final String accountNumber) {
+		log.debug("getOverdraftInstructions ENTRY {}", accountNumber);
+
+		return guarded(databaseClient.execute(getOverdraftInstructions_sql)
+				.bind(0, accountNumber)
+				.map((row, metadata) -> {
+					OverdraftInstruction res = new OverdraftInstruction();
+					res.setOverdraftAccount(new Account());
+
+					res.getOverdraftAccount().setAccountNumber(row.get(0, String.class));
+					res.getOverdraftAccount().setAccountLifeCycleStatus(row.get(1, String.class));
+					res.setInstructionLifecycleStatus(row.get(2, String.class));
+					res.setEffectiveStart(row.get(3, LocalDate.class).atStartOfDay());
+					LocalDate end = row.get(4, LocalDate.class);
+					res.setEffectiveEnd(end == null ? null : end.atStartOfDay());
+					return res;
+				})
+				.all()
+				.collectList())
+			.map(resources -> {
+				if (resources.isEmpty()) {
+					log.error("getOverdraftInstructions, ERROR=0 rows returned, SQL={}", getOverdraftInstructions_sql);
+					throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+							String.format("%d (!= 1) account_balance rows returned.", 0));
+				}
+				log.debug("getOverdraftInstructions size {}", resources.size());
+				return resources;
+			});
+	}
+
+	private static <T> T exactlyOne(List<T> resources, String table, String sql) {
+		if (resources.size() != 1) {
+			log.error("ERROR={} rows returned, SQL={}", resources.size(), sql);
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) %s rows returned.", resources.size(), table));
+		}
+		return resources.get(0);
+	}
+}
@@ -0,0 +1,49 @@
+package qslv.reservefunds.rest;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+
+/**
+ * Wiring for the reactive profile (spring.profiles.active=reactive, see application-reactive.properties):
+ * a pooled R2DBC connection factory on qslv.r2dbc-url and the /ReserveFunds route.
+ * The servlet controller and concurrency limit filter are not created under this profile.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+	@Autowired
+	private ConfigProperties config;
+
+	@Bean(destroyMethod = "dispose")
+	public ConnectionPool r2dbcConnectionPool() {
+		return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(config.getR2dbcUrl()))
+				.initialSize(config.getR2dbcPoolInitialSize())
+				.maxSize(config.getR2dbcPoolMaxSize())
+				.maxAcquireTime(Duration.ofMillis(config.getR2dbcPoolMaxAcquireTime()))
+				.build());
+	}
+
+	@Bean
+	public DatabaseClient databaseClient(ConnectionPool r2dbcConnectionPool) {
+		return DatabaseClient.create(r2dbcConnectionPool);
+	}
+
+	@Bean
+	public RouterFunction<ServerResponse> reserveFundsRoute(ReserveFundsHandler handler) {
+		return route(POST("/ReserveFunds"), handler::postReserveFunds);
+	}
+}
@@ -0,0 +1,130 @@
+package qslv.reservefunds.rest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReserveFundsService for the reactive profile: the same validation, reservation and overdraft
+ * rules, composed over R2dbcDao and ReactiveTransactionDao so no thread blocks on I/O.
+ * Overdraft accounts are tried one at a time in instruction sequence order, and the first
+ * successful reservation ends the sequence; later accounts are never called.
+ * Lookups go straight to AccountDB; the servlet path's lookup caches are not consulted.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveReserveFundsService {
+	private static final Logger log = LoggerFactory.getLogger(ReactiveReserveFundsService.class);
+
+	@Autowired
+	private R2dbcDao r2dbcDao;
+	@Autowired
+	private ReactiveTransactionDao trDao;
+	@Autowired
+	private ReplayCache replayCache;
+
+	public void setR2dbcDao(R2dbcDao r2dbcDao) {
+		this.r2dbcDao = r2dbcDao;
+	}
+	public void setTrDao(ReactiveTransactionDao trDao) {
+		this.trDao = trDao;
+	}
+	public void setReplayCache(ReplayCache replayCache) {
+		this.replayCache = replayCache;
+	}
+
+	public Mono<ReserveFundsResponse> reserveFunds(final Map<String, String> callingHeaders, final ReserveFundsRequest request) {
+		log.trace("service.reserveFunds ENTRY");
+
+		if (replayCache == null) {
+			return reserveFundsOnce(callingHeaders, request);
+		}
+		// taken before validateStanding replaces a debit card request's account number.
+		final String fingerprint = ReplayCache.fingerprint(request);
+		return Mono.defer(() -> Mono.fromFuture(replayCache.execute(request.getRequestUUID(), fingerprint,
+				() -> reserveFundsOnce(callingHeaders, request).toFuture())));
+	}
+
+	private Mono<ReserveFundsResponse> reserveFundsOnce(final Map<String, String> callingHeaders,
+			final ReserveFundsRequest request) {
+		return validateStanding(request)
+			.then(Mono.defer(() -> trDao.recordReservation(callingHeaders, buildReservationRequest(request, request.getAccountNumber()))))
+			.flatMap(reservationResponse -> {
+				ReserveFundsResponse response = new ReserveFundsResponse();
+				response.setTransactions(new ArrayList<TransactionResource>(2));
+				response.getTransactions().add(reservationResponse.getResource());
+
+				if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
+					response.setStatus(ReserveFundsResponse.SUCCESS);
+					return Mono.just(response);
+				}
+				response.setStatus(ReserveFundsResponse.INSUFFICIENT_FUNDS);
+				if (false == request.isProtectAgainstOverdraft()) {
+					return Mono.just(response);
+				}
+				return processOverdraftInstructions(callingHeaders, request, response);
+			});
+	}
+
+	// validates card and account standing; fills in the request's account number for a debit card.
+	private Mono<Void> validateStanding(final ReserveFundsRequest request) {
+		if (request.getDebitCardNumber() == null) {
+			return r2dbcDao.getAccount(request.getAccountNumber())
+				.doOnNext(ReserveFundsService::validateAccount)
+				.then();
+		}
+		return r2dbcDao.getDebitCardAndAccount(request.getDebitCardNumber())
+			.doOnNext(debitCard -> ReserveFundsService.validateDebitCard(request, debitCard))
+			.then();
+	}
+
+	private Mono<ReserveFundsResponse> processOverdraftInstructions(final Map<String, String> callingHeaders,
+			final ReserveFundsRequest request, final ReserveFundsResponse response) {
+		log.debug("service.processOverdraftAccount ENTRY");
+
+		return r2dbcDao.getOverdraftInstructions(request.getAccountNumber())
+			.map(instructions -> OverdraftPlan.compile(instructions, LocalDateTime.now()))
+			.flatMapMany(plan -> Flux.fromArray(plan.getOverdraftAccounts()))
+			// concatMap subscribes to one reservation at a time; takeUntil cancels the rest after a success.
+			.concatMap(overdraftAccount -> trDao.recordReservation(callingHeaders, buildReservationRequest(request, overdraftAccount)))
+			.takeUntil(reservationResponse -> reservationResponse.getStatus() == ReservationResponse.SUCCESS)
+			.doOnNext(reservationResponse -> {
+				response.getTransactions().add(reservationResponse.getResource());
+				if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
+					response.setStatus(ReserveFundsResponse.SUCCESS_OVERDRAFT);
+					log.debug("Overdraft Instruction success. {}", reservationResponse);
+				} else {
+					log.debug("Overdraft Instruction failed. {}", reservationResponse);
+				}
+			})
+			.then(Mono.fromSupplier(() -> {
+				log.debug("service.processOverdraftAccount EXIT");
+				return response;
+			}));
+	}
+
+	private ReservationRequest buildReservationRequest(ReserveFundsRequest request, String accountNumber) {
+		ReservationRequest treq = new ReservationRequest();
+		treq.setAccountNumber(accountNumber);
+		treq.setDebitCardNumber(request.getDebitCardNumber());
+		treq.setRequestUuid(request.getRequestUUID());
+		treq.setTransactionAmount(request.getTransactionAmount());
+		treq.setTransactionMetaDataJson(request.getTransactionMetaDataJSON());
+		treq.setProtectAgainstOverdraft(true);
+		return treq;
+	}
+}
@@ -0,0 +1,106 @@
+package qslv.reservefunds.rest;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import qslv.common.TimedResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.response.ReservationResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of TransactionDao for the reactive profile. Retries resubscribe to the
+ * WebClient exchange after the same backoff as the other paths, on a timer rather than a held thread.
+ * Only transport failures, timeouts and 5xx responses are retried. The breaker and bulkhead wrap
+ * the whole retry sequence, and exhausted transport failures surface as ResourceAccessException,
+ * as in TransactionDao. Attempts are not decomposed into remote and local time by RemoteCallMetrics.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveTransactionDao {
+	private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionDao.class);
+	private ParameterizedTypeReference<TimedResponse<ReservationResponse>> typeReference 
+		= new ParameterizedTypeReference<TimedResponse<ReservationResponse>>() {};
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private WebClient webClient;
+	@Autowired
+	@Qualifier("transactionServiceGuard")
+	private DependencyGuard transactionServiceGuard;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setWebClient(WebClient webClient) {
+		this.webClient = webClient;
+	}
+	public void setTransactionServiceGuard(DependencyGuard transactionServiceGuard) {
+		this.transactionServiceGuard = transactionServiceGuard;
+	}
+
+	public Mono<ReservationResponse> recordReservation(final Map<String, String> callingHeaders,
+			final ReservationRequest request) {
+		log.trace("recordReservation ENTRY {}", request);
+
+		final HttpHeaders headers = TransactionDao.buildHeaders(config, callingHeaders);
+		Mono<ReservationResponse> reservation = webClient.post()
+			.uri(config.getReservationUrl())
+			.headers(h -> h.addAll(headers))
+			.bodyValue(request)
+			.retrieve()
+			.bodyToMono(typeReference)
+			.timeout(Duration.ofMillis(config.getRestTimeout()))
+			.map(TimedResponse::getPayload)
+			.retryWhen(failures -> failures.index().concatMap(failure -> {
+				int attempt = (int) (failure.getT1() + 1);
+				if (false == isRetryable(failure.getT2())) {
+					log.debug("recordReservation EXIT {}", failure.getT2().getLocalizedMessage());
+					return Mono.error(failure.getT2());
+				}
+				if (attempt < config.getRestAttempts()) {
+					log.debug("recordReservation attempt {} failed. {}", attempt, failure.getT2().getLocalizedMessage());
+					return Mono.delay(Duration.ofMillis(TransactionDao.backoffDelay(config, attempt)));
+				}
+				return Mono.error(exhausted(failure.getT2()));
+			}));
+
+		return transactionServiceGuard == null ? reservation : transactionServiceGuard.mono(reservation);
+	}
+
+	/**
+	 * Only transport failures, timeouts and 5xx responses are worth another attempt; a 4xx or a
+	 * payload the Transaction Service cannot read fails the same way every time.
+	 */
+	static boolean isRetryable(Throwable cause) {
+		if (cause instanceof WebClientResponseException) {
+			return ((WebClientResponseException) cause).getStatusCode().is5xxServerError();
+		}
+		return false == (cause instanceof RuntimeException) || TransactionDao.isTransportFailure(cause);
+	}
+
+	private Throwable exhausted(Throwable cause) {
+		if (cause instanceof RuntimeException && false == TransactionDao.isTransportFailure(cause)) {
+			log.debug("recordReservation EXIT {}", cause.getLocalizedMessage());
+			return cause;
+		}
+		String msg = String.format("HTTP POST to URL %s with %d retries failed.", config.getReservationUrl(), config.getRestAttempts());
+		log.warn("recordReservation EXIT {}", msg);
+		ResourceAccessException rae = new ResourceAccessException(msg);
+		rae.initCause(cause);
+		return rae;
+	}
+}
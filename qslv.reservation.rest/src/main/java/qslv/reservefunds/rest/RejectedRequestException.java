@@ -0,0 +1,124 @@
+package qslv.reservefunds.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import qslv.common.TraceableRequest;
+
+/**
+ * A request turned away for something the caller sent: a bad header or body, or a card or account
+ * not in good standing. Under card-testing traffic these outnumber approvals, so they carry no stack
+ * trace and the fixed-reason ones come from shared Rejections whose status, error and message are
+ * serialized once. Each throw is a new instance, so nothing a handler does to it reaches other requests.
+ * Rendered by the @ExceptionHandler of ReserveFundsController and by ReserveFundsHandler.
+ */
+public class RejectedRequestException extends ResponseStatusException {
+	private static final long serialVersionUID = 1L;
+	private static final ObjectMapper mapper = new ObjectMapper();
+	// the format Spring Boot's default error response gives its timestamp.
+	private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxx");
+
+	static final Rejection MISSING_AIT_ID = missingHeader(TraceableRequest.AIT_ID);
+	static final Rejection MISSING_BUSINESS_TAXONOMY_ID = missingHeader(TraceableRequest.BUSINESS_TAXONOMY_ID);
+	static final Rejection MISSING_CORRELATION_ID = missingHeader(TraceableRequest.CORRELATION_ID);
+	static final Rejection MISSING_ACCEPT_VERSION = missingHeader(TraceableRequest.ACCEPT_VERSION);
+
+	static final Rejection MISSING_REQUEST_UUID = new Rejection(HttpStatus.BAD_REQUEST, "Missing request_uuid");
+	static final Rejection ACCOUNT_AND_DEBIT_CARD = new Rejection(HttpStatus.BAD_REQUEST, "Specify only one: account_id or debit_card");
+	static final Rejection NO_ACCOUNT_OR_DEBIT_CARD = new Rejection(HttpStatus.BAD_REQUEST, "Specify at least one: account_id or debit_card");
+	static final Rejection MISSING_METADATA = new Rejection(HttpStatus.BAD_REQUEST, "Missing transactionMetaData_json");
+	static final Rejection ZERO_AMOUNT = new Rejection(HttpStatus.BAD_REQUEST, "Transaction Amount must not be zero(0).");
+
+	static final Rejection ACCOUNT_NOT_IN_GOOD_STANDING = new Rejection(
+			HttpStatus.UNPROCESSABLE_ENTITY, "Account is in an invalid state.");
+	static final Rejection DEBIT_CARD_NOT_IN_GOOD_STANDING = new Rejection(
+			HttpStatus.UNPROCESSABLE_ENTITY, "Invalid Debit Card state.");
+	static final Rejection DEBIT_CARD_ACCOUNT_NOT_IN_GOOD_STANDING = new Rejection(
+			HttpStatus.UNPROCESSABLE_ENTITY, "Account associated with debit card is in an invalid state.");
+
+	private final String fields;
+
+	public RejectedRequestException(HttpStatus status, String reason) {
+		this(status, reason, errorFields(status, reason));
+	}
+
+	private RejectedRequestException(HttpStatus status, String reason, String fields) {
+		super(status, reason);
+		this.fields = fields;
+	}
+
+	static RejectedRequestException badRequest(String reason) {
+		return new RejectedRequestException(HttpStatus.BAD_REQUEST, reason);
+	}
+
+	private static Rejection missingHeader(String header) {
+		return new Rejection(HttpStatus.BAD_REQUEST, "Missing header variable " + header);
+	}
+
+	/**
+	 * The error body as JSON with the timestamp, status, error, message and path attributes of the
+	 * default error response.
+	 */
+	public byte[] getBody(String path) {
+		String timestamp = ZonedDateTime.now(ZoneOffset.UTC).format(TIMESTAMP);
+		String body;
+		try {
+			body = new StringBuilder(fields.length() + 64)
+					.append("{\"timestamp\":\"").append(timestamp).append("\",")
+					.append(fields)
+					.append(",\"path\":").append(mapper.writeValueAsString(path))
+					.append('}')
+					.toString();
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return body.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		return this;
+	}
+
+	// "status":n,"error":"...","message":"..." without the enclosing braces.
+	private static String errorFields(HttpStatus status, String reason) {
+		LinkedHashMap<String, Object> attributes = new LinkedHashMap<String, Object>();
+		attributes.put("status", status.value());
+		attributes.put("error", status.getReasonPhrase());
+		attributes.put("message", reason);
+		try {
+			String json = mapper.writeValueAsString(attributes);
+			return json.substring(1, json.length() - 1);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * A fixed-reason rejection, serialized once and thrown as a new stackless exception each time.
+	 */
+	public static final class Rejection {
+		private final HttpStatus status;
+		private final String reason;
+		private final String fields;
+
+		public Rejection(HttpStatus status, String reason) {
+			this.status = status;
+			this.reason = reason;
+			this.fields = errorFields(status, reason);
+		}
+
+		public RejectedRequestException exception() {
+			return new RejectedRequestException(status, reason, fields);
+		}
+	}
+}
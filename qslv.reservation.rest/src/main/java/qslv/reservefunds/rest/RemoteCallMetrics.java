@@ -0,0 +1,93 @@
+package qslv.reservefunds.rest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import qslv.common.TimedResponse;
+
+/**
+ * Splits each Transaction Service attempt into the service time the remote side reports in its
+ * TimedResponse and the local round trip, so a slow network or a queue in front of the service
+ * can be told apart from a slow service. Overhead is round trip minus service time. Retry cost is
+ * the time a call lost to failed attempts and backoff before the attempt that answered.
+ * Published as Micrometer timers only; the per-attempt SLI line stays the one
+ * RestClientElapsedTimeSLILogger writes. The remote clock unit is qslv.remote-elapsed-time-unit.
+ * Covers TransactionDao's blocking and async paths; ReactiveTransactionDao has no decomposition.
+ */
+@Component
+public class RemoteCallMetrics {
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private ConfigProperties config;
+
+	private Timer roundTripSuccess;
+	private Timer roundTripError;
+	private Timer service;
+	private Timer overhead;
+	private Timer retryCost;
+
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+
+	@PostConstruct
+	void init() {
+		roundTripSuccess = timer("reservefunds.remote.roundtrip", "success");
+		roundTripError = timer("reservefunds.remote.roundtrip", "error");
+		service = timer("reservefunds.remote.service", null);
+		overhead = timer("reservefunds.remote.overhead", null);
+		retryCost = timer("reservefunds.remote.retry.cost", null);
+	}
+
+	private Timer timer(String name, String outcome) {
+		Timer.Builder builder = Timer.builder(name)
+				.tag("dependency", ResilienceConfig.TRANSACTION_SERVICE)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofNanos(100000L))
+				.maximumExpectedValue(Duration.ofSeconds(10L));
+		if (outcome != null) {
+			builder.tag("outcome", outcome);
+		}
+		return builder.register(meterRegistry);
+	}
+
+	/**
+	 * An attempt that got an answer. A response without service time (zero or negative) only
+	 * contributes its round trip.
+	 */
+	public void attempt(int attempt, long roundTripNanos, TimedResponse<?> response) {
+		roundTripSuccess.record(roundTripNanos, TimeUnit.NANOSECONDS);
+		long serviceNanos = response == null ? 0L : remoteNanos(config, response.getServiceTimeElapsed());
+		if (serviceNanos <= 0L) {
+			return;
+		}
+		service.record(serviceNanos, TimeUnit.NANOSECONDS);
+		overhead.record(Math.max(0L, roundTripNanos - serviceNanos), TimeUnit.NANOSECONDS);
+	}
+
+	public void failedAttempt(int attempt, long roundTripNanos) {
+		roundTripError.record(roundTripNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Time between the start of a call and the start of its final attempt. Only recorded for calls that retried.
+	 */
+	public void retryCost(long nanos) {
+		retryCost.record(Math.max(0L, nanos), TimeUnit.NANOSECONDS);
+	}
+
+	static long remoteNanos(ConfigProperties config, long elapsed) {
+		return config.getRemoteElapsedTimeUnit().toNanos(elapsed);
+	}
+}
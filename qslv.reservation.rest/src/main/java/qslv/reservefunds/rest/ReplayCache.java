@@ -0,0 +1,156 @@
+package qslv.reservefunds.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+/**
+ * Idempotency store keyed on ReserveFundsRequest.requestUUID. A repeated requestUUID gets the
+ * original's ReserveFundsResponse; a duplicate arriving while the original is still running
+ * waits on it. Each entry keeps a fingerprint of the request (account or card, amount, overdraft
+ * protection, SHA-256 of the metadata); a requestUUID reused for a different request is rejected with 409. Completed responses live for replayCacheTimeToLive, bounded by replayCacheMaximumSize.
+ * Failures are not kept, so a retry after an error runs again.
+ */
+@Component
+public class ReplayCache {
+	private static final Logger log = LoggerFactory.getLogger(ReplayCache.class);
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Cache<UUID, Replay> responses;
+	private Counter misses;
+	private Counter hits;
+	private Counter inFlightHits;
+	private Counter conflicts;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void init() {
+		if (false == config.isReplayCacheEnabled()) {
+			log.debug("Replay cache disabled.");
+			return;
+		}
+		responses = Caffeine.newBuilder()
+				.maximumSize(config.getReplayCacheMaximumSize())
+				.expireAfterWrite(config.getReplayCacheTimeToLive(), TimeUnit.MILLISECONDS)
+				.build();
+		misses = Counter.builder("reservefunds.replay").tag("result", "miss").register(meterRegistry);
+		hits = Counter.builder("reservefunds.replay").tag("result", "hit").register(meterRegistry);
+		inFlightHits = Counter.builder("reservefunds.replay").tag("result", "inflight").register(meterRegistry);
+		conflicts = Counter.builder("reservefunds.replay").tag("result", "conflict").register(meterRegistry);
+		meterRegistry.gauge("reservefunds.replay.size", responses, cache -> cache.estimatedSize());
+	}
+
+	/**
+	 * The parts of a request that a replay must match: account or debit card, amount, overdraft
+	 * protection and a SHA-256 digest of the metadata, so different metadata never matches.
+	 */
+	public static String fingerprint(ReserveFundsRequest request) {
+		return new StringBuilder(96)
+				.append(request.getAccountNumber()).append('|')
+				.append(request.getDebitCardNumber()).append('|')
+				.append(request.getTransactionAmount()).append('|')
+				.append(request.isProtectAgainstOverdraft()).append('|')
+				.append(digest(request.getTransactionMetaDataJSON()))
+				.toString();
+	}
+
+	private static String digest(String metadata) {
+		if (metadata == null) {
+			return "";
+		}
+		try {
+			byte[] sha = MessageDigest.getInstance("SHA-256").digest(metadata.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(sha);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Returns the stored or in-flight response for requestUUID, otherwise runs reservation and stores its result.
+	 * Fails with 409 when requestUUID was first seen with a different fingerprint.
+	 */
+	public CompletableFuture<ReserveFundsResponse> execute(final UUID requestUUID, final String fingerprint,
+			final Supplier<CompletableFuture<ReserveFundsResponse>> reservation) {
+		if (responses == null || requestUUID == null) {
+			return reservation.get();
+		}
+
+		CompletableFuture<ReserveFundsResponse> mine = new CompletableFuture<ReserveFundsResponse>();
+		Replay entry = new Replay(fingerprint, mine);
+		Replay existing = responses.asMap().putIfAbsent(requestUUID, entry);
+		if (existing != null) {
+			if (false == existing.fingerprint.equals(fingerprint)) {
+				conflicts.increment();
+				log.warn("requestUUID {} reused for a different request", requestUUID);
+				CompletableFuture<ReserveFundsResponse> conflict = new CompletableFuture<ReserveFundsResponse>();
+				conflict.completeExceptionally(new ResponseStatusException(HttpStatus.CONFLICT,
+						"request_uuid was already used for a different request"));
+				return conflict;
+			}
+			(existing.response.isDone() ? hits : inFlightHits).increment();
+			log.debug("Replaying requestUUID {}", requestUUID);
+			return existing.response;
+		}
+
+		misses.increment();
+		CompletableFuture<ReserveFundsResponse> original;
+		try {
+			original = reservation.get();
+		} catch (RuntimeException ex) {
+			original = new CompletableFuture<ReserveFundsResponse>();
+			original.completeExceptionally(ex);
+		}
+		original.whenComplete((response, ex) -> {
+			if (ex != null) {
+				responses.asMap().remove(requestUUID, entry);
+				mine.completeExceptionally(ex);
+			} else {
+				mine.complete(response);
+			}
+		});
+		return mine;
+	}
+
+	private static final class Replay {
+		final String fingerprint;
+		final CompletableFuture<ReserveFundsResponse> response;
+
+		Replay(String fingerprint, CompletableFuture<ReserveFundsResponse> response) {
+			this.fingerprint = fingerprint;
+			this.response = response;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package qslv.reservefunds.rest;
+
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+/**
+ * Outcome of one item of a /ReserveFunds/batch request. status is the HTTP status the item would
+ * have received from /ReserveFunds; response is set on 200, message otherwise.
+ */
+public class ReserveFundsBatchResult {
+	private int status;
+	private String message;
+	private ReserveFundsResponse response;
+
+	public ReserveFundsBatchResult() {
+	}
+
+	public ReserveFundsBatchResult(int status, String message, ReserveFundsResponse response) {
+		this.status = status;
+		this.message = message;
+		this.response = response;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public ReserveFundsResponse getResponse() {
+		return response;
+	}
+
+	public void setResponse(ReserveFundsResponse response) {
+		this.response = response;
+	}
+}
@@ -1,17 +1,36 @@
 package qslv.reservefunds.rest;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import qslv.common.TimedResponse;
-import qslv.common.TraceableRequest;
 import qslv.reservefunds.request.ReserveFundsRequest;
 import qslv.reservefunds.response.ReserveFundsResponse;
 import qslv.util.LogRequestTracingData;
@@ -33,6 +52,7 @@ import qslv.util.ServiceElapsedTimeSLI;
  */
 
 @RestController
+@Profile("!reactive")
 public class ReserveFundsController {
 	private static final Logger log = LoggerFactory.getLogger(ReserveFundsController.class);
 
@@ -40,6 +60,12 @@ public class ReserveFundsController {
 	public ConfigProperties config;
 	@Autowired
 	private ReserveFundsService service;
+	@Autowired
+	private StageMetrics stageMetrics;
+	@Autowired(required = false)
+	private Tracer tracer = Tracing.NOOP_TRACER;
+	@Autowired(required = false)
+	private SliAggregator sliAggregator;
 
 	public void setConfig(ConfigProperties config) {
 		this.config = config;
@@ -47,6 +73,15 @@ public class ReserveFundsController {
 	public void setService(ReserveFundsService service) {
 		this.service = service;
 	}
+	public void setStageMetrics(StageMetrics stageMetrics) {
+		this.stageMetrics = stageMetrics;
+	}
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer;
+	}
+	public void setSliAggregator(SliAggregator sliAggregator) {
+		this.sliAggregator = sliAggregator;
+	}
 	
 	@PostMapping("/ReserveFunds")
 	@ResponseStatus(HttpStatus.OK)
@@ -54,67 +89,185 @@ public class ReserveFundsController {
 	@ServiceElapsedTimeSLI(value="POST/ReserveFunds", injectResponse = true, ait = "#{@configProperties.aitid}")
 	public TimedResponse<ReserveFundsResponse> postReserveFunds(final @RequestHeader Map<String, String> headers,
 			final @RequestBody ReserveFundsRequest request) {
-		validateHeaders(headers);
-		validateReserveFundsRequest(request);
-		if ( false == headers.get(TraceableRequest.ACCEPT_VERSION).equals(ReserveFundsRequest.version1_0) ) {
-			log.error("controller.postReserveFunds, Malformed Request. Invalid version {}", headers.get(TraceableRequest.ACCEPT_VERSION));
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid version "+ headers.get(TraceableRequest.ACCEPT_VERSION));			
+		long start = System.nanoTime();
+		StageTimings timings = StageTimings.begin();
+		exposeStages(timings);
+		String outcome = StageMetrics.ERROR;
+		Span span = serverSpan("POST /ReserveFunds", headers);
+		try (Scope scope = span.makeCurrent()) {
+			ReserveFundsValidator.validateHeaders(headers);
+			ReserveFundsValidator.validateReserveFundsRequest(request);
+			ReserveFundsValidator.validateVersion(headers);
+			timings.since(Stage.VALIDATION, start);
+			ReserveFundsResponse answer = service.reserveFunds(headers, request);
+			outcome = StageMetrics.outcome(answer);
+
+			TimedResponse<ReserveFundsResponse> response = new TimedResponse<ReserveFundsResponse>();
+			response.setPayload(answer);
+			return response;
+		} catch (RuntimeException ex) {
+			Tracing.error(span, ex);
+			throw ex;
+		} finally {
+			span.setAttribute("reservefunds.outcome", outcome);
+			span.end();
+			StageTimings.end();
+			recordStages(timings, outcome);
+			recordSli("POST/ReserveFunds", start, outcome);
 		}
-		ReserveFundsResponse answer = service.reserveFunds(headers, request);
+	}
 
-		TimedResponse<ReserveFundsResponse> response = new TimedResponse<ReserveFundsResponse>();
-		response.setPayload(answer);
-		return response;
+	// child of the caller's span when a traceparent header came in.
+	private Span serverSpan(String name, Map<String, String> headers) {
+		return tracer.spanBuilder(name)
+				.setParent(Tracing.extract(headers))
+				.setSpanKind(SpanKind.SERVER)
+				.startSpan();
 	}
 
-	private void validateReserveFundsRequest(ReserveFundsRequest request) {
-		log.trace("validateReserveFundsRequest ENTRY");
-		if (request.getRequestUUID() == null) {
-			log.error("controller.validateTransactionRequest, Malformed Request. Missing request_uuid");
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing request_uuid");
+	private void exposeStages(StageTimings timings) {
+		if (config != null && config.isServerTimingEnabled()) {
+			ServerTimingAdvice.expose(timings);
 		}
+	}
 
-		boolean accountPresent = request.getAccountNumber() != null && request.getAccountNumber().length() > 0;
-		boolean debitCardPresent = request.getDebitCardNumber() != null && request.getDebitCardNumber().length() > 0;
-		
-		if  (accountPresent && debitCardPresent ){
-			log.error("controller.validateTransactionRequest Malformed Request. Specify only one: account_id or debit_card");
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Specify only one: account_id or debit_card");
-		}
-		if  (accountPresent== false && debitCardPresent==false ){
-			log.error("controller.validateTransactionRequest Malformed Request. Specify at least one: account_id or debit_card");
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Specify at least one: account_id or debit_card");
+	private void recordSli(String sli, long start, String outcome) {
+		if (sliAggregator != null) {
+			sliAggregator.record(sli, System.nanoTime() - start, outcome == StageMetrics.ERROR);
 		}
+	}
 
-		if (request.getTransactionMetaDataJSON() == null || request.getTransactionMetaDataJSON().length() <= 1) {
-			log.error("controller.validateTransactionRequest Malformed Request. Missing transactionMetaData_json");
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing transactionMetaData_json");
+	private void completeSli(String sli, long start, String outcome) {
+		if (sliAggregator != null) {
+			sliAggregator.complete(sli, System.nanoTime() - start, outcome == StageMetrics.ERROR);
 		}
-		
-		if (request.getTransactionAmount() == 0) {
-			log.error("controller.validateTransactionRequest Malformed Request. Transaction Amount must not be zero(0).");
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Transaction Amount must not be zero(0).");
+	}
+
+	private void recordStages(StageTimings timings, String outcome) {
+		if (stageMetrics != null) {
+			stageMetrics.record(timings, outcome);
 		}
 	}
 
-	private void validateHeaders(Map<String, String> headerMap) {
-		log.trace("validateHeaders ENTRY");
+	/**
+	 * Reserves a batch of requests under one set of tracing headers. Items are validated individually;
+	 * an invalid item gets a 400 result in its position and the rest of the batch proceeds. A repeat of
+	 * an earlier item's request_uuid gets a 409 and is not reserved.
+	 */
+	@PostMapping("/ReserveFunds/batch")
+	@ResponseStatus(HttpStatus.OK)
+	@LogRequestTracingData(value="POST/ReserveFunds/batch", ait = "#{@configProperties.aitid}")
+	@ServiceElapsedTimeSLI(value="POST/ReserveFunds/batch", injectResponse = true, ait = "#{@configProperties.aitid}")
+	public TimedResponse<List<ReserveFundsBatchResult>> postReserveFundsBatch(final @RequestHeader Map<String, String> headers,
+			final @RequestBody List<ReserveFundsRequest> requests) {
+		ReserveFundsValidator.validateHeaders(headers);
+		ReserveFundsValidator.validateVersion(headers);
+		if (requests == null || requests.isEmpty() || requests.size() > config.getBatchMaxSize()) {
+			log.error("controller.postReserveFundsBatch, Malformed Request. Batch size must be 1 to {}", config.getBatchMaxSize());
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch size must be 1 to " + config.getBatchMaxSize());
+		}
 
-		if (headerMap.get(TraceableRequest.AIT_ID) == null) {
-			log.error("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.AIT_ID);
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing header variable "+TraceableRequest.AIT_ID);
+		ReserveFundsBatchResult[] results = new ReserveFundsBatchResult[requests.size()];
+		ArrayList<ReserveFundsRequest> valid = new ArrayList<ReserveFundsRequest>(requests.size());
+		int[] positions = new int[requests.size()];
+		HashSet<UUID> requestUUIDs = new HashSet<UUID>(requests.size() * 2);
+		for (int i = 0; i < requests.size(); i++) {
+			try {
+				ReserveFundsValidator.validateReserveFundsRequest(requests.get(i));
+				if (false == requestUUIDs.add(requests.get(i).getRequestUUID())) {
+					results[i] = new ReserveFundsBatchResult(HttpStatus.CONFLICT.value(), "Duplicate request_uuid in batch", null);
+					continue;
+				}
+				positions[valid.size()] = i;
+				valid.add(requests.get(i));
+			} catch (ResponseStatusException ex) {
+				results[i] = new ReserveFundsBatchResult(ex.getStatus().value(), ex.getReason(), null);
+			}
 		}
-		if (headerMap.get(TraceableRequest.BUSINESS_TAXONOMY_ID) == null) {
-			log.error("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.BUSINESS_TAXONOMY_ID);
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing header variable "+TraceableRequest.BUSINESS_TAXONOMY_ID);
+		if (false == valid.isEmpty()) {
+			List<ReserveFundsBatchResult> answers = service.reserveFundsBatch(headers, valid);
+			for (int i = 0; i < answers.size(); i++) {
+				results[positions[i]] = answers.get(i);
+			}
 		}
-		if (headerMap.get(TraceableRequest.CORRELATION_ID) == null) {
-			log.error("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.CORRELATION_ID);
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing header variable " + TraceableRequest.CORRELATION_ID);
+
+		TimedResponse<List<ReserveFundsBatchResult>> response = new TimedResponse<List<ReserveFundsBatchResult>>();
+		response.setPayload(Arrays.asList(results));
+		return response;
+	}
+
+	/**
+	 * Asynchronous variant of postReserveFunds. The servlet thread is released as soon as the
+	 * request is validated; the response is written when the reservation chain completes. The SLI
+	 * is recorded at completion, as an aspect would only time the handler.
+	 */
+	@PostMapping("/ReserveFunds/async")
+	@LogRequestTracingData(value="POST/ReserveFunds/async", ait = "#{@configProperties.aitid}")
+	public DeferredResult<TimedResponse<ReserveFundsResponse>> postReserveFundsAsync(final @RequestHeader Map<String, String> headers,
+			final @RequestBody ReserveFundsRequest request) {
+		final long start = System.nanoTime();
+		final StageTimings timings = StageTimings.begin();
+		exposeStages(timings);
+		final Span span = serverSpan("POST /ReserveFunds/async", headers);
+		CompletableFuture<ReserveFundsResponse> answered;
+		try (Scope scope = span.makeCurrent()) {
+			ReserveFundsValidator.validateHeaders(headers);
+			ReserveFundsValidator.validateReserveFundsRequest(request);
+			ReserveFundsValidator.validateVersion(headers);
+			timings.since(Stage.VALIDATION, start);
+			answered = service.reserveFundsAsync(headers, request);
+		} catch (RuntimeException ex) {
+			Tracing.error(span, ex);
+			span.end();
+			recordStages(timings, StageMetrics.ERROR);
+			completeSli("POST/ReserveFunds/async", start, StageMetrics.ERROR);
+			throw ex;
+		} finally {
+			StageTimings.end();
 		}
-		if (headerMap.get(TraceableRequest.ACCEPT_VERSION) == null) {
-			log.error("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.ACCEPT_VERSION);
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing header variable "+ TraceableRequest.ACCEPT_VERSION);
-		}	}
 
+		final DeferredResult<TimedResponse<ReserveFundsResponse>> deferred = new DeferredResult<TimedResponse<ReserveFundsResponse>>();
+		answered.whenComplete((answer, ex) -> {
+			if (ex != null) {
+				Tracing.error(span, ex);
+				span.end();
+				recordStages(timings, StageMetrics.ERROR);
+				completeSli("POST/ReserveFunds/async", start, StageMetrics.ERROR);
+				deferred.setErrorResult((ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex);
+			} else {
+				span.setAttribute("reservefunds.outcome", StageMetrics.outcome(answer));
+				span.end();
+				recordStages(timings, StageMetrics.outcome(answer));
+				completeSli("POST/ReserveFunds/async", start, StageMetrics.outcome(answer));
+				TimedResponse<ReserveFundsResponse> response = new TimedResponse<ReserveFundsResponse>();
+				response.setPayload(answer);
+				response.setServiceTimeElapsed(System.nanoTime() - start);
+				deferred.setResult(response);
+			}
+		});
+		return deferred;
+	}
+
+	/**
+	 * Validation and standing rejections get their pre-serialized body directly instead of a forward
+	 * to the error page.
+	 */
+	@ExceptionHandler(RejectedRequestException.class)
+	public ResponseEntity<byte[]> rejected(RejectedRequestException ex, HttpServletRequest request) {
+		return ResponseEntity.status(ex.getStatus())
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(ex.getBody(request.getRequestURI()));
+	}
+
+	/**
+	 * A dependency's circuit breaker is open or its bulkhead is full: fail fast with 503 and
+	 * ask the caller to come back after the breaker's open interval.
+	 */
+	@ExceptionHandler({ CallNotPermittedException.class, BulkheadFullException.class })
+	public ResponseEntity<String> dependencyUnavailable(RuntimeException ex) {
+		log.warn("controller.dependencyUnavailable {}", ex.getLocalizedMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(ResilienceConfig.retryAfterSeconds(config)))
+				.body(ex.getLocalizedMessage());
+	}
 }
@@ -0,0 +1,94 @@
+package qslv.reservefunds.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one unit of reservation work: the whole reserveFunds call, a JdbcDao
+ * query or a single Transaction Service attempt. Fields are only filled in when the recording
+ * will keep the event, so outside a recording the cost is a begin/end timestamp pair.
+ * Accounts are carried as a truncated HMAC-SHA256 under qslv.flight-recording-account-hash-key, so
+ * recordings can be shared without account numbers and the hashes cannot be reversed by trying
+ * every account number. Without a key the account hash is left empty.
+ */
+@Name("qslv.reservefunds.Stage")
+@Label("ReserveFunds Stage")
+@Category({ "QuickSilver", "ReserveFunds" })
+@Description("Duration and outcome of a reservation stage")
+@StackTrace(false)
+public class ReserveFundsEvent extends Event {
+	public static final String RESERVE_FUNDS = "reserveFunds";
+	public static final String TRANSACTION_SERVICE = "transactionService";
+	public static final String SUCCESS = "success";
+	public static final String ERROR = "error";
+	private static final String HMAC = "HmacSHA256";
+	private static final int HASH_BYTES = 8;
+
+	private static volatile SecretKeySpec accountHashKey;
+
+	@Label("Stage")
+	String stage;
+	@Label("Account Hash")
+	String accountHash;
+	@Label("Outcome")
+	String outcome;
+	@Label("Attempt")
+	@Description("Retry attempt, starting at 1. 0 when the stage is not retried.")
+	int attempt;
+
+	public static ReserveFundsEvent start() {
+		ReserveFundsEvent event = new ReserveFundsEvent();
+		event.begin();
+		return event;
+	}
+
+	public void end(String stage, String account, String outcome, int attempt) {
+		end();
+		if (shouldCommit()) {
+			this.stage = stage;
+			this.accountHash = accountHash(account);
+			this.outcome = outcome;
+			this.attempt = attempt;
+			commit();
+		}
+	}
+
+	/**
+	 * The per-deployment secret for account hashes; null or empty leaves them out.
+	 */
+	public static void setAccountHashKey(String secret) {
+		accountHashKey = secret == null || secret.isEmpty() ? null
+				: new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+	}
+
+	static String accountHash(String account) {
+		SecretKeySpec key = accountHashKey;
+		if (account == null || key == null) {
+			return null;
+		}
+		byte[] digest;
+		try {
+			// only reached for events a recording keeps, so a Mac per call is affordable.
+			Mac mac = Mac.getInstance(HMAC);
+			mac.init(key);
+			digest = mac.doFinal(account.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException ex) {
+			throw new IllegalStateException(ex);
+		}
+		StringBuilder hex = new StringBuilder(HASH_BYTES * 2);
+		for (int i = 0; i < HASH_BYTES; i++) {
+			hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+		}
+		return hex.toString();
+	}
+}
@@ -0,0 +1,74 @@
+package qslv.reservefunds.rest;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import qslv.common.TimedResponse;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux handler for POST /ReserveFunds in the reactive profile. Same validation, payload and
+ * error statuses as ReserveFundsController; rejections get their pre-serialized body, other
+ * ResponseStatusExceptions are rendered by the default error handler and dependency rejections
+ * become 503 with Retry-After.
+ */
+@Component
+@Profile("reactive")
+public class ReserveFundsHandler {
+	private static final Logger log = LoggerFactory.getLogger(ReserveFundsHandler.class);
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private ReactiveReserveFundsService service;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setService(ReactiveReserveFundsService service) {
+		this.service = service;
+	}
+
+	public Mono<ServerResponse> postReserveFunds(final ServerRequest serverRequest) {
+		final long start = System.nanoTime();
+		final Map<String, String> headers = serverRequest.headers().asHttpHeaders().toSingleValueMap();
+
+		return serverRequest.bodyToMono(ReserveFundsRequest.class)
+			.switchIfEmpty(Mono.error(() -> RejectedRequestException.badRequest("Missing request body")))
+			.flatMap(request -> {
+				ReserveFundsValidator.validateHeaders(headers);
+				ReserveFundsValidator.validateReserveFundsRequest(request);
+				ReserveFundsValidator.validateVersion(headers);
+				return service.reserveFunds(headers, request);
+			})
+			.flatMap(answer -> {
+				TimedResponse<ReserveFundsResponse> response = new TimedResponse<ReserveFundsResponse>();
+				response.setPayload(answer);
+				response.setServiceTimeElapsed(System.nanoTime() - start);
+				return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+			})
+			.onErrorResume(RejectedRequestException.class, ex -> ServerResponse.status(ex.getStatus())
+					.contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(ex.getBody(serverRequest.path())))
+			.onErrorResume(ex -> ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException, ex -> {
+				log.warn("handler.dependencyUnavailable {}", ex.getLocalizedMessage());
+				return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, Long.toString(ResilienceConfig.retryAfterSeconds(config)))
+					.bodyValue(ex.getLocalizedMessage());
+			});
+	}
+}
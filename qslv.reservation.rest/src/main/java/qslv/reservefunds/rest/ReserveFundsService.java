@@ -3,18 +3,28 @@ import qslv.transaction.request.ReservationRequest;
 import qslv.transaction.resource.TransactionResource;
 import qslv.transaction.response.ReservationResponse;
 
-import java.util.LinkedList;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import qslv.common.TraceableRequest;
 import qslv.data.Account;
 import qslv.data.DebitCard;
 import qslv.data.OverdraftInstruction;
@@ -24,6 +34,8 @@ import qslv.reservefunds.response.ReserveFundsResponse;
 @Service
 public class ReserveFundsService {
 	private static final Logger log = LoggerFactory.getLogger(ReserveFundsService.class);
+	// the reservation plus one overdraft attempt, the common decline path, without growing.
+	private static final int TRANSACTIONS_CAPACITY = 2;
 
 	@Autowired
 	private JdbcDao jdbcDao;
@@ -31,119 +43,456 @@ public class ReserveFundsService {
 	@Autowired
 	private TransactionDao trDao;
 
+	@Autowired
+	@Qualifier("jdbcExecutor")
+	private Executor jdbcExecutor;
+
+	@Autowired
+	@Qualifier("batchExecutor")
+	private Executor batchExecutor;
+
+	@Autowired
+	private AccountLookup accountLookup;
+
+	@Autowired
+	private ReplayCache replayCache;
+
+	@Autowired
+	private ConfigProperties config;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	public void setDao(JdbcDao dao) {
 		this.jdbcDao = dao;
 	}
 	public void setTrDao(TransactionDao trDao) {
 		this.trDao = trDao;
 	}
+	public void setJdbcExecutor(Executor jdbcExecutor) {
+		this.jdbcExecutor = jdbcExecutor;
+	}
+	public void setBatchExecutor(Executor batchExecutor) {
+		this.batchExecutor = batchExecutor;
+	}
+	public void setAccountLookup(AccountLookup accountLookup) {
+		this.accountLookup = accountLookup;
+	}
+	public void setReplayCache(ReplayCache replayCache) {
+		this.replayCache = replayCache;
+	}
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
 
-	public ReserveFundsResponse reserveFunds(Map<String, String> callingHeaders, ReserveFundsRequest request) {
+	public ReserveFundsResponse reserveFunds(final Map<String, String> callingHeaders, final ReserveFundsRequest request) {
 		log.trace("service.reserveFunds ENTRY");
 		
-		if (request.getDebitCardNumber() == null) {
-			Account acctResource = jdbcDao.getAccount(request.getAccountNumber());
+		ReserveFundsEvent event = ReserveFundsEvent.start();
+		String outcome = ReserveFundsEvent.ERROR;
+		try {
+			ReserveFundsResponse response = replayCache == null ? reserveFundsOnce(callingHeaders, request)
+					: reserveFundsReplayed(callingHeaders, request);
+			outcome = StageMetrics.outcome(response);
+			return response;
+		} finally {
+			event.end(ReserveFundsEvent.RESERVE_FUNDS,
+					request.getAccountNumber() != null ? request.getAccountNumber() : request.getDebitCardNumber(), outcome, 0);
+		}
+	}
 
-			if (false == accountInGoodStanding(acctResource)) {
-				throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
-						String.format("Account is in an invalid state."));
+	private ReserveFundsResponse reserveFundsReplayed(final Map<String, String> callingHeaders, final ReserveFundsRequest request) {
+		try {
+			return replayCache.execute(request.getRequestUUID(), ReplayCache.fingerprint(request),
+					() -> CompletableFuture.completedFuture(reserveFundsOnce(callingHeaders, request))).join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
 			}
-		} else {
-			DebitCard debitResource = jdbcDao.getDebitCardAndAccount(request.getDebitCardNumber());
+			throw ex;
+		}
+	}
+
+	private ReserveFundsResponse reserveFundsOnce(Map<String, String> callingHeaders, ReserveFundsRequest request) {
+		long start = System.nanoTime();
+		List<OverdraftInstruction> overdraftInstructions = validateStanding(request);
+		StageTimings.current().since(Stage.LOOKUP, start);
+		return reserveValidated(callingHeaders, request, overdraftInstructions);
+	}
 
-			if (false == debitCardInGoodStanding(debitResource)) {
-				throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
-						String.format("Invalid Debit Card state."));
+	/**
+	 * Reserves every request of a batch. Each item takes the same path as a single reserveFunds
+	 * call (replay cache, lookup cache, standing checks); when the lookup cache is on, its debit cards
+	 * and accounts are first fetched with one set-based query each and cached. The items run
+	 * concurrently on the batchExecutor. Results are returned in request order; a failing item
+	 * yields its HTTP status and message and does not fail the batch.
+	 */
+	public List<ReserveFundsBatchResult> reserveFundsBatch(final Map<String, String> callingHeaders,
+			final List<ReserveFundsRequest> requests) {
+		log.trace("service.reserveFundsBatch ENTRY {} requests", requests.size());
 
-			}
-			if (false == accountInGoodStanding(debitResource.getAccount())) {
-				throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
-						String.format("Account associated with debit card is in an invalid state."));
+		if (accountLookup != null && accountLookup.isCaching()) {
+			primeLookups(requests);
+		}
+
+		ArrayList<CompletableFuture<ReserveFundsBatchResult>> futures = new ArrayList<CompletableFuture<ReserveFundsBatchResult>>(requests.size());
+		for (final ReserveFundsRequest request : requests) {
+			futures.add(CompletableFuture.supplyAsync(Tracing.wrap(() -> reserveBatchItem(callingHeaders, request)), batchExecutor));
+		}
+		ArrayList<ReserveFundsBatchResult> results = new ArrayList<ReserveFundsBatchResult>(requests.size());
+		for (CompletableFuture<ReserveFundsBatchResult> future : futures) {
+			results.add(future.join());
+		}
+
+		log.trace("service.reserveFundsBatch EXIT");
+		return results;
+	}
 
+	private void primeLookups(List<ReserveFundsRequest> requests) {
+		HashSet<String> debitCardNumbers = new HashSet<String>();
+		HashSet<String> accountNumbers = new HashSet<String>();
+		for (ReserveFundsRequest request : requests) {
+			if (request.getDebitCardNumber() != null) {
+				debitCardNumbers.add(request.getDebitCardNumber());
+			} else if (request.getAccountNumber() != null) {
+				accountNumbers.add(request.getAccountNumber());
 			}
-			request.setAccountNumber(debitResource.getAccount().getAccountNumber());
 		}
+		accountLookup.cache(
+				debitCardNumbers.isEmpty() ? Collections.<String, DebitCard>emptyMap() : jdbcDao.getDebitCardsAndAccounts(debitCardNumbers),
+				accountNumbers.isEmpty() ? Collections.<String, Account>emptyMap() : jdbcDao.getAccounts(accountNumbers));
+	}
 
-		// ---------------
-		ReservationRequest treq = new ReservationRequest();
-		treq.setAccountNumber(request.getAccountNumber());
-		treq.setDebitCardNumber(request.getDebitCardNumber());
-		treq.setRequestUuid(request.getRequestUUID());
-		treq.setTransactionAmount(request.getTransactionAmount());
-		treq.setTransactionMetaDataJson(request.getTransactionMetaDataJSON());
-		treq.setProtectAgainstOverdraft(true);
+	private ReserveFundsBatchResult reserveBatchItem(Map<String, String> callingHeaders, ReserveFundsRequest request) {
+		try {
+			return new ReserveFundsBatchResult(HttpStatus.OK.value(), null, reserveFunds(callingHeaders, request));
+		} catch (ResponseStatusException ex) {
+			log.debug("reserveBatchItem {} {}", ex.getStatus(), ex.getReason());
+			return new ReserveFundsBatchResult(ex.getStatus().value(), ex.getReason(), null);
+		} catch (CallNotPermittedException | BulkheadFullException ex) {
+			log.debug("reserveBatchItem {}", ex.getLocalizedMessage());
+			return new ReserveFundsBatchResult(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getLocalizedMessage(), null);
+		} catch (RuntimeException ex) {
+			log.warn("reserveBatchItem {}", ex.getLocalizedMessage());
+			return new ReserveFundsBatchResult(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.getLocalizedMessage(), null);
+		}
+	}
+
+	private ReserveFundsResponse reserveValidated(Map<String, String> callingHeaders, ReserveFundsRequest request,
+			List<OverdraftInstruction> overdraftInstructions) {
+		ReservationRequest treq = buildReservationRequest(request);
+		CompletableFuture<OverdraftPlan> prefetch = prefetchOverdraftPlan(callingHeaders, request, overdraftInstructions);
 		
 		// ---------------
-		ReservationResponse reservationResponse = trDao.recordReservation(callingHeaders, treq);
+		ReservationResponse reservationResponse;
+		long start = System.nanoTime();
+		try {
+			reservationResponse = trDao.recordReservation(callingHeaders, treq);
+		} catch (RuntimeException ex) {
+			discardPrefetch(callingHeaders, prefetch);
+			throw ex;
+		} finally {
+			StageTimings.current().since(Stage.RESERVATION, start);
+		}
 
 		// ---------------
 		ReserveFundsResponse response = new ReserveFundsResponse();
-		response.setTransactions(new LinkedList<TransactionResource>());
+		response.setTransactions(new ArrayList<TransactionResource>(TRANSACTIONS_CAPACITY));
 		response.getTransactions().add(reservationResponse.getResource());
 		
 		if (reservationResponse.getStatus() == ReservationResponse.SUCCESS ) {	
 			response.setStatus(ReserveFundsResponse.SUCCESS);
+			discardPrefetch(callingHeaders, prefetch);
 		} else {
 			response.setStatus(ReserveFundsResponse.INSUFFICIENT_FUNDS);
 			if ( request.isProtectAgainstOverdraft() ) {
-				 processOverdraftInstructions( callingHeaders, request, response);
+				 processOverdraftInstructions( callingHeaders, request, treq, response, overdraftInstructions, prefetch);
 			}
 		}
 		
 		return response;
 	}
-	
-	private void processOverdraftInstructions(Map<String, String> callingHeaders, 
-			ReserveFundsRequest request, ReserveFundsResponse response) {
-		log.debug("service.processOverdraftAccount ENTRY");
 
-		List<OverdraftInstruction> overdraftInstructions = jdbcDao
-				.getOverdraftInstructions(request.getAccountNumber());
+	/**
+	 * Non-blocking variant of reserveFunds. The card/account lookup runs on the calling thread,
+	 * Transaction Service calls are asynchronous and the overdraft lookup is handed to the jdbcExecutor
+	 * so it never blocks an HTTP client event loop thread.
+	 */
+	public CompletableFuture<ReserveFundsResponse> reserveFundsAsync(final Map<String, String> callingHeaders,
+			final ReserveFundsRequest request) {
+		log.trace("service.reserveFundsAsync ENTRY");
+
+		if (replayCache == null) {
+			return reserveFundsAsyncOnce(callingHeaders, request);
+		}
+		return replayCache.execute(request.getRequestUUID(), ReplayCache.fingerprint(request), () -> reserveFundsAsyncOnce(callingHeaders, request));
+	}
 
+	private CompletableFuture<ReserveFundsResponse> reserveFundsAsyncOnce(final Map<String, String> callingHeaders,
+			final ReserveFundsRequest request) {
+		final StageTimings timings = StageTimings.current();
+		final long start = System.nanoTime();
+		final List<OverdraftInstruction> overdraftInstructions = validateStanding(request);
+		timings.since(Stage.LOOKUP, start);
+		final ReservationRequest treq = buildReservationRequest(request);
+		final CompletableFuture<OverdraftPlan> prefetch = prefetchOverdraftPlan(callingHeaders, request, overdraftInstructions);
+
+		final long reservationStart = System.nanoTime();
+		return trDao.recordReservationAsync(callingHeaders, treq).whenComplete((reservationResponse, ex) -> {
+			timings.since(Stage.RESERVATION, reservationStart);
+			if (ex != null) {
+				discardPrefetch(callingHeaders, prefetch);
+			}
+		}).thenCompose(reservationResponse -> {
+			ReserveFundsResponse response = new ReserveFundsResponse();
+			response.setTransactions(new ArrayList<TransactionResource>(TRANSACTIONS_CAPACITY));
+			response.getTransactions().add(reservationResponse.getResource());
+
+			if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
+				response.setStatus(ReserveFundsResponse.SUCCESS);
+				discardPrefetch(callingHeaders, prefetch);
+				return CompletableFuture.completedFuture(response);
+			}
+			response.setStatus(ReserveFundsResponse.INSUFFICIENT_FUNDS);
+			if (false == request.isProtectAgainstOverdraft()) {
+				return CompletableFuture.completedFuture(response);
+			}
+			CompletableFuture<OverdraftPlan> plan;
+			if (overdraftInstructions != null) {
+				plan = CompletableFuture.completedFuture(OverdraftPlan.compile(overdraftInstructions, LocalDateTime.now()));
+			} else if (prefetch != null) {
+				plan = prefetch.whenComplete((p, failure) -> countPrefetch(callingHeaders, failure == null ? "used" : "failed"));
+			} else {
+				plan = CompletableFuture.supplyAsync(Tracing.wrap(() -> overdraftPlan(request.getAccountNumber())), jdbcExecutor);
+			}
+			final long lookupStart = System.nanoTime();
+			return plan.thenCompose(compiled -> {
+				timings.since(Stage.OVERDRAFT_LOOKUP, lookupStart);
+				return processOverdraftPlanAsync(callingHeaders, treq, compiled.getOverdraftAccounts(), 0, response, timings);
+			});
+		});
+	}
+
+	private CompletableFuture<ReserveFundsResponse> processOverdraftPlanAsync(final Map<String, String> callingHeaders,
+			final ReservationRequest treq, final String[] overdraftAccounts, final int next, final ReserveFundsResponse response,
+			final StageTimings timings) {
+		if (next >= overdraftAccounts.length) {
+			return CompletableFuture.completedFuture(response);
+		}
+		treq.setAccountNumber(overdraftAccounts[next]);
+		final long start = System.nanoTime();
+		return trDao.recordReservationAsync(callingHeaders, treq).thenCompose(reservationResponse -> {
+			timings.since(Stage.OVERDRAFT_ATTEMPT, start);
+			response.getTransactions().add(reservationResponse.getResource());
+			if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
+				response.setStatus(ReserveFundsResponse.SUCCESS_OVERDRAFT);
+				log.debug("Overdraft Instruction success. {}", reservationResponse);
+				return CompletableFuture.completedFuture(response);
+			}
+			log.debug("Overdraft Instruction failed. {}", overdraftAccounts[next]);
+			return processOverdraftPlanAsync(callingHeaders, treq, overdraftAccounts, next + 1, response, timings);
+		});
+	}
+
+	/**
+	 * Looks up and validates the card and account standing. When qslv.combined-overdraft-lookup is set
+	 * and the request asks for overdraft protection, the overdraft instructions are fetched in the same
+	 * round trip and returned (through AccountLookup, which answers from its caches when it can);
+	 * otherwise returns null and instructions are looked up on decline.
+	 */
+	private List<OverdraftInstruction> validateStanding(ReserveFundsRequest request) {
+		boolean combined = config != null && config.isCombinedOverdraftLookup() && request.isProtectAgainstOverdraft();
+		List<OverdraftInstruction> overdraftInstructions = null;
+
+		if (request.getDebitCardNumber() == null) {
+			Account acctResource;
+			if (combined) {
+				CombinedLookup lookup = accountLookup == null ? jdbcDao.getAccountAndOverdraft(request.getAccountNumber())
+						: accountLookup.getAccountAndOverdraft(request.getAccountNumber());
+				acctResource = lookup.getAccount();
+				overdraftInstructions = instructions(lookup);
+			} else {
+				acctResource = lookupAccount(request.getAccountNumber());
+			}
+			validateAccount(acctResource);
+		} else {
+			DebitCard debitResource;
+			if (combined) {
+				CombinedLookup lookup = accountLookup == null ? jdbcDao.getDebitCardAccountAndOverdraft(request.getDebitCardNumber())
+						: accountLookup.getDebitCardAccountAndOverdraft(request.getDebitCardNumber());
+				debitResource = lookup.getDebitCard();
+				overdraftInstructions = instructions(lookup);
+			} else {
+				debitResource = lookupDebitCard(request.getDebitCardNumber());
+			}
+			validateDebitCard(request, debitResource);
+		}
+		return overdraftInstructions;
+	}
+
+	// no instructions (none on file, or served from the lookup cache) means look them up on decline
+	// as the separate-query path does, so both paths give the same result.
+	private static List<OverdraftInstruction> instructions(CombinedLookup lookup) {
+		List<OverdraftInstruction> overdraftInstructions = lookup.getOverdraftInstructions();
+		return overdraftInstructions == null || overdraftInstructions.isEmpty() ? null : overdraftInstructions;
+	}
+
+	static void validateAccount(Account acctResource) {
+		if (acctResource == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account_balance rows returned.", 0));
+		}
+		if (false == accountInGoodStanding(acctResource)) {
+			throw RejectedRequestException.ACCOUNT_NOT_IN_GOOD_STANDING.exception();
+		}
+	}
+
+	static void validateDebitCard(ReserveFundsRequest request, DebitCard debitResource) {
+		if (debitResource == null) {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					String.format("%d (!= 1) account - debit_card rows returned.", 0));
+		}
+		if (false == debitCardInGoodStanding(debitResource)) {
+			throw RejectedRequestException.DEBIT_CARD_NOT_IN_GOOD_STANDING.exception();
+		}
+		if (false == accountInGoodStanding(debitResource.getAccount())) {
+			throw RejectedRequestException.DEBIT_CARD_ACCOUNT_NOT_IN_GOOD_STANDING.exception();
+		}
+		request.setAccountNumber(debitResource.getAccount().getAccountNumber());
+	}
+
+	private Account lookupAccount(String accountNumber) {
+		return accountLookup == null ? jdbcDao.getAccount(accountNumber) : accountLookup.getAccount(accountNumber);
+	}
+
+	private DebitCard lookupDebitCard(String debitCardNumber) {
+		return accountLookup == null ? jdbcDao.getDebitCardAndAccount(debitCardNumber)
+				: accountLookup.getDebitCardAndAccount(debitCardNumber);
+	}
+
+	private ReservationRequest buildReservationRequest(ReserveFundsRequest request) {
 		ReservationRequest treq = new ReservationRequest();
+		treq.setAccountNumber(request.getAccountNumber());
 		treq.setDebitCardNumber(request.getDebitCardNumber());
 		treq.setRequestUuid(request.getRequestUUID());
 		treq.setTransactionAmount(request.getTransactionAmount());
 		treq.setTransactionMetaDataJson(request.getTransactionMetaDataJSON());
 		treq.setProtectAgainstOverdraft(true);
+		return treq;
+	}
+	
+	// treq is the primary reservation request, re-pointed at each overdraft account in turn.
+	private void processOverdraftInstructions(Map<String, String> callingHeaders, ReserveFundsRequest request,
+			ReservationRequest treq, ReserveFundsResponse response, List<OverdraftInstruction> overdraftInstructions,
+			CompletableFuture<OverdraftPlan> prefetch) {
+		log.debug("service.processOverdraftAccount ENTRY");
 
-		ListIterator<OverdraftInstruction> iter = overdraftInstructions.listIterator();
-		while (iter.hasNext()) {
-			OverdraftInstruction instruction = iter.next();
-			if (false == instructionEffective(instruction) ||
-				false ==accountInGoodStanding(instruction.getOverdraftAccount())) {
-				log.debug("Overdraft Instruction not valid. {}", instruction.toString());
-			} else {
-				treq.setAccountNumber(instruction.getOverdraftAccount().getAccountNumber());
-				ReservationResponse reservationResponse = trDao.recordReservation(callingHeaders, treq);
-				response.getTransactions().add(reservationResponse.getResource());
+		StageTimings timings = StageTimings.current();
+		long start = System.nanoTime();
+		OverdraftPlan plan;
+		if (overdraftInstructions != null) {
+			plan = OverdraftPlan.compile(overdraftInstructions, LocalDateTime.now());
+		} else if (prefetch != null) {
+			plan = joinPrefetch(callingHeaders, prefetch);
+		} else {
+			plan = overdraftPlan(request.getAccountNumber());
+		}
+		timings.since(Stage.OVERDRAFT_LOOKUP, start);
+
+		for (String overdraftAccount : plan.getOverdraftAccounts()) {
+			treq.setAccountNumber(overdraftAccount);
+			start = System.nanoTime();
+			ReservationResponse reservationResponse = trDao.recordReservation(callingHeaders, treq);
+			timings.since(Stage.OVERDRAFT_ATTEMPT, start);
+			response.getTransactions().add(reservationResponse.getResource());
 
-				if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
-					response.setStatus(ReserveFundsResponse.SUCCESS_OVERDRAFT);
-					log.debug("Overdraft Instruction success. {}", reservationResponse.toString());
-					break;
-				} else {
-					log.debug("Overdraft Instruction failed. {}", instruction.toString());
-				}
-			}			
+			if (reservationResponse.getStatus() == ReservationResponse.SUCCESS) {
+				response.setStatus(ReserveFundsResponse.SUCCESS_OVERDRAFT);
+				log.debug("Overdraft Instruction success. {}", reservationResponse);
+				break;
+			} else {
+				log.debug("Overdraft Instruction failed. {}", overdraftAccount);
+			}
 		}
 
 		log.debug("service.processOverdraftAccount EXIT");
 		return;
 	}
 
-	private boolean debitCardInGoodStanding(DebitCard debitResource) {
-		return (debitResource.getDebitCardLifeCycleStatus().contentEquals("EF"));
+	/**
+	 * Starts the overdraft plan lookup on the jdbcExecutor, concurrently with the primary reservation,
+	 * when qslv.overdraft-prefetch-enabled is set, overdraft protection is requested, the instructions
+	 * were not already fetched by the combined lookup and the business taxonomy is selected
+	 * (qslv.overdraft-prefetch-taxonomies, empty means all). Returns null when not prefetching.
+	 */
+	private CompletableFuture<OverdraftPlan> prefetchOverdraftPlan(Map<String, String> callingHeaders,
+			ReserveFundsRequest request, List<OverdraftInstruction> overdraftInstructions) {
+		if (config == null || false == config.isOverdraftPrefetchEnabled()
+				|| false == request.isProtectAgainstOverdraft() || overdraftInstructions != null) {
+			return null;
+		}
+		List<String> taxonomies = config.getOverdraftPrefetchTaxonomies();
+		if (taxonomies != null && false == taxonomies.isEmpty()
+				&& false == taxonomies.contains(callingHeaders.get(TraceableRequest.BUSINESS_TAXONOMY_ID))) {
+			return null;
+		}
+		final String accountNumber = request.getAccountNumber();
+		return CompletableFuture.supplyAsync(Tracing.wrap(() -> overdraftPlan(accountNumber)), jdbcExecutor);
 	}
 
-	private boolean instructionEffective(OverdraftInstruction instruction) {
-		return ( instruction.getInstructionLifecycleStatus().contentEquals("EF") &&
-				 java.time.LocalDateTime.now().compareTo(instruction.getEffectiveStart()) > 0 &&
-				 ( instruction.getEffectiveEnd() == null ||
-				 java.time.LocalDateTime.now().compareTo(instruction.getEffectiveEnd()) < 0) );
+	private OverdraftPlan joinPrefetch(Map<String, String> callingHeaders, CompletableFuture<OverdraftPlan> prefetch) {
+		try {
+			OverdraftPlan plan = prefetch.join();
+			countPrefetch(callingHeaders, "used");
+			return plan;
+		} catch (CompletionException ex) {
+			countPrefetch(callingHeaders, "failed");
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw ex;
+		}
+	}
+
+	// a lookup still queued on the jdbcExecutor is skipped; one already running completes and is dropped.
+	private void discardPrefetch(Map<String, String> callingHeaders, CompletableFuture<OverdraftPlan> prefetch) {
+		if (prefetch != null) {
+			prefetch.cancel(false);
+			countPrefetch(callingHeaders, "wasted");
+		}
+	}
+
+	private void countPrefetch(Map<String, String> callingHeaders, String outcome) {
+		if (meterRegistry == null) {
+			return;
+		}
+		meterRegistry.counter("reservefunds.overdraft.prefetch", "outcome", outcome,
+				"businessTaxonomy", taxonomyTag(callingHeaders.get(TraceableRequest.BUSINESS_TAXONOMY_ID))).increment();
+	}
+
+	// the header is caller-controlled, so only configured taxonomies become tag values.
+	private String taxonomyTag(String taxonomy) {
+		if (taxonomy == null) {
+			return "none";
+		}
+		List<String> taxonomies = config == null ? null : config.getOverdraftPrefetchTaxonomies();
+		return taxonomies != null && taxonomies.contains(taxonomy) ? taxonomy : "other";
+	}
+
+	private OverdraftPlan overdraftPlan(String accountNumber) {
+		return accountLookup == null 
+				? OverdraftPlan.compile(jdbcDao.getOverdraftInstructions(accountNumber), LocalDateTime.now())
+				: accountLookup.getOverdraftPlan(accountNumber);
+	}
+
+	private static boolean debitCardInGoodStanding(DebitCard debitResource) {
+		return (debitResource.getDebitCardLifeCycleStatus().contentEquals("EF"));
 	}
 
-	private boolean accountInGoodStanding(Account account) {
+	private static boolean accountInGoodStanding(Account account) {
 		return (account.getAccountLifeCycleStatus().contentEquals("EF"));
 	}
 
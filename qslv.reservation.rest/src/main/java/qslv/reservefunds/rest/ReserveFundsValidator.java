@@ -0,0 +1,78 @@
+package qslv.reservefunds.rest;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import qslv.common.TraceableRequest;
+import qslv.reservefunds.request.ReserveFundsRequest;
+
+/**
+ * Request validation shared by the servlet controller and the reactive handler.
+ * Each check throws a 400 RejectedRequestException naming the problem.
+ */
+final class ReserveFundsValidator {
+	private static final Logger log = LoggerFactory.getLogger(ReserveFundsValidator.class);
+
+	private ReserveFundsValidator() {
+	}
+
+	static void validateVersion(Map<String, String> headers) {
+		if ( false == headers.get(TraceableRequest.ACCEPT_VERSION).equals(ReserveFundsRequest.version1_0) ) {
+			log.debug("controller.postReserveFunds, Malformed Request. Invalid version {}", headers.get(TraceableRequest.ACCEPT_VERSION));
+			throw RejectedRequestException.badRequest("Invalid version "+ headers.get(TraceableRequest.ACCEPT_VERSION));
+		}
+	}
+
+	static void validateReserveFundsRequest(ReserveFundsRequest request) {
+		log.trace("validateReserveFundsRequest ENTRY");
+		if (request.getRequestUUID() == null) {
+			log.debug("controller.validateTransactionRequest, Malformed Request. Missing request_uuid");
+			throw RejectedRequestException.MISSING_REQUEST_UUID.exception();
+		}
+
+		boolean accountPresent = request.getAccountNumber() != null && request.getAccountNumber().length() > 0;
+		boolean debitCardPresent = request.getDebitCardNumber() != null && request.getDebitCardNumber().length() > 0;
+		
+		if  (accountPresent && debitCardPresent ){
+			log.debug("controller.validateTransactionRequest Malformed Request. Specify only one: account_id or debit_card");
+			throw RejectedRequestException.ACCOUNT_AND_DEBIT_CARD.exception();
+		}
+		if  (accountPresent== false && debitCardPresent==false ){
+			log.debug("controller.validateTransactionRequest Malformed Request. Specify at least one: account_id or debit_card");
+			throw RejectedRequestException.NO_ACCOUNT_OR_DEBIT_CARD.exception();
+		}
+
+		if (request.getTransactionMetaDataJSON() == null || request.getTransactionMetaDataJSON().length() <= 1) {
+			log.debug("controller.validateTransactionRequest Malformed Request. Missing transactionMetaData_json");
+			throw RejectedRequestException.MISSING_METADATA.exception();
+		}
+		
+		if (request.getTransactionAmount() == 0) {
+			log.debug("controller.validateTransactionRequest Malformed Request. Transaction Amount must not be zero(0).");
+			throw RejectedRequestException.ZERO_AMOUNT.exception();
+		}
+	}
+
+	static void validateHeaders(Map<String, String> headerMap) {
+		log.trace("validateHeaders ENTRY");
+
+		if (headerMap.get(TraceableRequest.AIT_ID) == null) {
+			log.debug("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.AIT_ID);
+			throw RejectedRequestException.MISSING_AIT_ID.exception();
+		}
+		if (headerMap.get(TraceableRequest.BUSINESS_TAXONOMY_ID) == null) {
+			log.debug("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.BUSINESS_TAXONOMY_ID);
+			throw RejectedRequestException.MISSING_BUSINESS_TAXONOMY_ID.exception();
+		}
+		if (headerMap.get(TraceableRequest.CORRELATION_ID) == null) {
+			log.debug("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.CORRELATION_ID);
+			throw RejectedRequestException.MISSING_CORRELATION_ID.exception();
+		}
+		if (headerMap.get(TraceableRequest.ACCEPT_VERSION) == null) {
+			log.debug("controller.validateHeaders, Malformed Request. Missing header variable {}", TraceableRequest.ACCEPT_VERSION);
+			throw RejectedRequestException.MISSING_ACCEPT_VERSION.exception();
+		}
+	}
+}
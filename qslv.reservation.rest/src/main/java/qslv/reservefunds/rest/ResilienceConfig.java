@@ -0,0 +1,98 @@
+package qslv.reservefunds.rest;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Circuit breakers and bulkheads for AccountDB and the Transaction Service.
+ * A breaker records the same exceptions the SLI loggers classify as remote failures
+ * (DataAccessException for AccountDB, ResourceAccessException for the Transaction Service)
+ * plus calls slower than the dependency's slow-call threshold.
+ * State, failure rates and available permits are published as resilience4j.* meters.
+ */
+@Configuration
+public class ResilienceConfig {
+	public static final String ACCOUNT_DB = "AccountDB";
+	public static final String TRANSACTION_SERVICE = "TransactionService";
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Bean
+	public CircuitBreakerRegistry circuitBreakerRegistry() {
+		CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+		TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+		return registry;
+	}
+
+	@Bean
+	public BulkheadRegistry bulkheadRegistry() {
+		BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+		TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+		return registry;
+	}
+
+	@Bean
+	public DependencyGuard accountDbGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+		if (false == config.isCircuitBreakerEnabled()) {
+			return DependencyGuard.passThrough();
+		}
+		return new DependencyGuard(
+				circuitBreakerRegistry.circuitBreaker(ACCOUNT_DB, circuitBreakerConfig(config.getAccountDbSlowCallDuration(),
+						DataAccessException.class)),
+				bulkheadRegistry.bulkhead(ACCOUNT_DB, bulkheadConfig(config.getAccountDbBulkheadMaxCalls())));
+	}
+
+	@Bean
+	public DependencyGuard transactionServiceGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+		if (false == config.isCircuitBreakerEnabled()) {
+			return DependencyGuard.passThrough();
+		}
+		return new DependencyGuard(
+				circuitBreakerRegistry.circuitBreaker(TRANSACTION_SERVICE, circuitBreakerConfig(config.getTransactionSlowCallDuration(),
+						ResourceAccessException.class)),
+				bulkheadRegistry.bulkhead(TRANSACTION_SERVICE, bulkheadConfig(config.getTransactionBulkheadMaxCalls())));
+	}
+
+	/**
+	 * Retry-After for a rejected call: the breaker's open interval, rounded up to whole seconds.
+	 */
+	static long retryAfterSeconds(ConfigProperties config) {
+		return Math.max(1L, (config.getCircuitBreakerOpenTime() + 999L) / 1000L);
+	}
+
+	@SafeVarargs
+	private final CircuitBreakerConfig circuitBreakerConfig(int slowCallDuration, Class<? extends Throwable>... remoteFailures) {
+		return CircuitBreakerConfig.custom()
+				.failureRateThreshold(config.getCircuitBreakerFailureRateThreshold())
+				.slowCallRateThreshold(config.getCircuitBreakerSlowCallRateThreshold())
+				.slowCallDurationThreshold(Duration.ofMillis(slowCallDuration))
+				.slidingWindowSize(config.getCircuitBreakerWindowSize())
+				.minimumNumberOfCalls(config.getCircuitBreakerMinimumCalls())
+				.waitDurationInOpenState(Duration.ofMillis(config.getCircuitBreakerOpenTime()))
+				.recordExceptions(remoteFailures)
+				.build();
+	}
+
+	private BulkheadConfig bulkheadConfig(int maxConcurrentCalls) {
+		return BulkheadConfig.custom()
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.maxWaitDuration(Duration.ofMillis(config.getBulkheadMaxWait()))
+				.build();
+	}
+}
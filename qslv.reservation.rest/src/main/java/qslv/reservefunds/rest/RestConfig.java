@@ -1,29 +1,68 @@
 package qslv.reservefunds.rest;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 import qslv.util.RestClientElapsedTimeSLILogger;
 
 @Configuration
 public class RestConfig {
 	@Autowired
 	private ConfigProperties config;
-	
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Bean
+	public TimedConnectionManager connectionManager() {
+		TimedConnectionManager connectionManager = new TimedConnectionManager(config.getRestConnectionTimeToLive(), meterRegistry);
+		connectionManager.setMaxTotal(config.getRestMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(config.getRestMaxConnectionsPerRoute());
+		connectionManager.setValidateAfterInactivity(config.getRestValidateAfterInactivity());
+		if (config.isVirtualThreadsEnabled()) {
+			connectionManager.setLeasePermits(Math.min(config.getRestMaxConnections(), config.getRestMaxConnectionsPerRoute()));
+		}
+		return connectionManager;
+	}
+
 	@Bean
-	public RestTemplate restTemplate() {
-        HttpComponentsClientHttpRequestFactory httpRequestFactory = new HttpComponentsClientHttpRequestFactory(HttpClients.createDefault());
+	public CloseableHttpClient httpClient(TimedConnectionManager connectionManager) {
+		// honor the server's Keep-Alive header, otherwise fall back to the configured keep-alive.
+		ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return duration > 0 ? duration : config.getRestKeepAlive();
+		};
+		return HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAlive)
+				.evictExpiredConnections()
+				.evictIdleConnections(config.getRestIdleEvictionTime(), TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	@Bean
+	public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory httpRequestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
         httpRequestFactory.setConnectionRequestTimeout(config.getRestConnectionRequestTimeout());;
         httpRequestFactory.setConnectTimeout(config.getRestConnectTimeout());
         httpRequestFactory.setReadTimeout(config.getRestTimeout());
@@ -31,6 +70,14 @@ public class RestConfig {
         return new RestTemplate(httpRequestFactory);
 	}
 	
+	@Bean
+	public WebClient webClient(WebClient.Builder builder) {
+		HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed("reservation", 
+					config.getRestMaxConnections(), config.getRestConnectionRequestTimeout()))
+				.tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, config.getRestConnectTimeout()));
+		return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+	}
+
 	@Bean 
 	public RetryTemplate retryTemplate() {
 		ExponentialBackOffPolicy bop = new ExponentialBackOffPolicy();
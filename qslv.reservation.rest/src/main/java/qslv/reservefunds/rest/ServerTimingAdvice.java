@@ -0,0 +1,97 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Writes the request's stage timings as a Server-Timing header, e.g.
+ * {@code lookup;dur=1.204, reservation;dur=5.318, overdraftAttempt;dur=4.870}, so callers and gateways
+ * can attribute latency without a tracing backend. Emitted when qslv.server-timing-enabled is set and
+ * either the caller sends X-Server-Timing: true or the request falls in qslv.server-timing-sample-rate.
+ * Durations are milliseconds measured with System.nanoTime; a stage that ran more than once, such as
+ * an overdraft attempt, is listed once per run.
+ */
+@ControllerAdvice(assignableTypes = ReserveFundsController.class)
+@Profile("!reactive")
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+	public static final String SERVER_TIMING = "Server-Timing";
+	public static final String REQUEST_HEADER = "X-Server-Timing";
+	static final String TIMINGS_ATTRIBUTE = ServerTimingAdvice.class.getName() + ".timings";
+
+	@Autowired
+	private ConfigProperties config;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+
+	/**
+	 * Makes the timings visible to the advice once the handler returns. Survives an async dispatch,
+	 * so the deferred variant is covered too. No-op outside a servlet request.
+	 */
+	public static void expose(StageTimings timings) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.setAttribute(TIMINGS_ATTRIBUTE, timings, RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return config.isServerTimingEnabled();
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return body;
+		}
+		StageTimings timings = (StageTimings) attributes.getAttribute(TIMINGS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (timings != null && timings.size() > 0 && sampled(request.getHeaders().getFirst(REQUEST_HEADER))) {
+			response.getHeaders().set(SERVER_TIMING, format(timings));
+		}
+		return body;
+	}
+
+	boolean sampled(String requested) {
+		if ("true".equalsIgnoreCase(requested)) {
+			return true;
+		}
+		double rate = config.getServerTimingSampleRate();
+		return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+	}
+
+	static String format(StageTimings timings) {
+		StringBuilder header = new StringBuilder(32 * timings.size());
+		for (int i = 0; i < timings.size(); i++) {
+			if (i > 0) {
+				header.append(", ");
+			}
+			long micros = timings.nanos(i) / 1000L;
+			header.append(timings.stage(i).getTag()).append(";dur=").append(micros / 1000L).append('.');
+			long fraction = micros % 1000L;
+			if (fraction < 100L) {
+				header.append('0');
+			}
+			if (fraction < 10L) {
+				header.append('0');
+			}
+			header.append(fraction);
+		}
+		return header.toString();
+	}
+}
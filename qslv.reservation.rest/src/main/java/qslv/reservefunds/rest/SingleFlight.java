@@ -0,0 +1,59 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent lookups of the same key into one. The first caller for a key runs the
+ * loader; callers arriving while it is in flight wait for and share its result or exception.
+ * Nothing is retained once the load completes. Lock-free apart from the ConcurrentHashMap bin
+ * touched by putIfAbsent/remove.
+ */
+public class SingleFlight<K, V> {
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<K, CompletableFuture<V>>();
+	private final Counter leaders;
+	private final Counter collapsed;
+
+	public SingleFlight(String name, MeterRegistry meterRegistry) {
+		leaders = Counter.builder("reservefunds.lookup.singleflight").tag("query", name).tag("result", "leader")
+				.register(meterRegistry);
+		collapsed = Counter.builder("reservefunds.lookup.singleflight").tag("query", name).tag("result", "collapsed")
+				.register(meterRegistry);
+	}
+
+	public V execute(K key, Function<K, V> loader) {
+		CompletableFuture<V> mine = new CompletableFuture<V>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+		if (existing != null) {
+			collapsed.increment();
+			try {
+				return existing.join();
+			} catch (CompletionException ex) {
+				if (ex.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) ex.getCause();
+				}
+				if (ex.getCause() instanceof Error) {
+					throw (Error) ex.getCause();
+				}
+				throw ex;
+			}
+		}
+
+		leaders.increment();
+		try {
+			V value = loader.apply(key);
+			mine.complete(value);
+			return value;
+		} catch (Throwable ex) {
+			mine.completeExceptionally(ex);
+			throw ex;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+}
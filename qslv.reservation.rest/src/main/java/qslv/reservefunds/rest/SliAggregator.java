@@ -0,0 +1,180 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.stereotype.Component;
+
+/**
+ * With qslv.sli-mode=aggregate, SLI timings are folded into per-name windows instead of being logged
+ * call by call, and one summary line per SLI name is written every qslv.sli-interval seconds: count,
+ * error count and latency percentiles. Each window spreads writers over striped HdrHistogram
+ * Recorders, which are wait-free for writers and swapped out without locking by the flush.
+ * Per-call SLI lines the service controls are still written for qslv.sli-log-sample-rate of calls.
+ * The per-call lines of the qslv-common @ServiceElapsedTimeSLI and @ExternalResourceSLI aspects are
+ * silenced by raising the qslv.sli-aspect-loggers to WARN, so aggregation replaces them.
+ */
+@Component
+public class SliAggregator {
+	private static final Logger log = LoggerFactory.getLogger(SliAggregator.class);
+	public static final String LOG = "log";
+	public static final String AGGREGATE = "aggregate";
+
+	@Autowired
+	private ConfigProperties config;
+	@Autowired
+	@Qualifier("sliFlushScheduler")
+	private ScheduledExecutorService sliFlushScheduler;
+	@Autowired(required = false)
+	private LoggingSystem loggingSystem;
+
+	private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+	private boolean aggregating = false;
+
+	public void setConfig(ConfigProperties config) {
+		this.config = config;
+	}
+	public void setSliFlushScheduler(ScheduledExecutorService sliFlushScheduler) {
+		this.sliFlushScheduler = sliFlushScheduler;
+	}
+	public void setLoggingSystem(LoggingSystem loggingSystem) {
+		this.loggingSystem = loggingSystem;
+	}
+
+	@PostConstruct
+	void init() {
+		aggregating = AGGREGATE.equalsIgnoreCase(config.getSliMode());
+		if (aggregating && sliFlushScheduler != null) {
+			sliFlushScheduler.scheduleAtFixedRate(this::flush, config.getSliInterval(), config.getSliInterval(), TimeUnit.SECONDS);
+		}
+		if (aggregating && loggingSystem != null) {
+			for (String logger : config.getSliAspectLoggers()) {
+				loggingSystem.setLogLevel(logger, LogLevel.WARN);
+				log.info("SLI aggregation, per-call lines of {} raised to WARN", logger);
+			}
+		}
+	}
+
+	public boolean isAggregating() {
+		return aggregating;
+	}
+
+	/**
+	 * Whether a per-call SLI line should be written: always in log mode, for the sampled share of calls otherwise.
+	 */
+	public boolean logCall() {
+		if (false == aggregating) {
+			return true;
+		}
+		double rate = config.getSliLogSampleRate();
+		return rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+	}
+
+	public void record(String sli, long nanos, boolean error) {
+		if (false == aggregating) {
+			return;
+		}
+		Window window = windows.get(sli);
+		if (window == null) {
+			window = windows.computeIfAbsent(sli, name -> new Window(name, config.getAitid()));
+		}
+		window.record(nanos, error);
+	}
+
+	/**
+	 * For a call that completes after its handler has returned, which the SLI aspects cannot time:
+	 * one per-call line in log mode, folded into the window in aggregate mode.
+	 */
+	public void complete(String sli, long nanos, boolean error) {
+		if (aggregating) {
+			record(sli, nanos, error);
+			return;
+		}
+		log.info("SLI {} ait={} elapsedMicros={} error={}", sli, config.getAitid(), nanos / 1000L, error);
+	}
+
+	Window window(String sli) {
+		return windows.get(sli);
+	}
+
+	void flush() {
+		long now = System.currentTimeMillis();
+		for (Window window : windows.values()) {
+			try {
+				window.flush(now);
+			} catch (RuntimeException ex) {
+				log.warn("flush {} failed. {}", window.name, ex.getLocalizedMessage());
+			}
+		}
+	}
+
+	static class Window {
+		private static final long HIGHEST = TimeUnit.SECONDS.toNanos(60);
+		// 1% resolution is plenty for percentile summaries and keeps a recorder to tens of KB.
+		private static final int DIGITS = 2;
+		private static final int MAX_STRIPES = 8;
+		private final String name;
+		private final String ait;
+		private final Recorder[] stripes;
+		// a recorder only takes back interval histograms it handed out.
+		private final Histogram[] intervals;
+		private final LongAdder errors = new LongAdder();
+		private final Histogram total = new Histogram(HIGHEST, DIGITS);
+		private long intervalStart = System.currentTimeMillis();
+
+		Window(String name, String ait) {
+			this.name = name;
+			this.ait = ait;
+			int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+			this.stripes = new Recorder[stripes];
+			this.intervals = new Histogram[stripes];
+			for (int i = 0; i < stripes; i++) {
+				this.stripes[i] = new Recorder(HIGHEST, DIGITS);
+			}
+		}
+
+		void record(long nanos, boolean error) {
+			stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)].recordValue(Math.min(Math.max(nanos, 0L), HIGHEST));
+			if (error) {
+				errors.increment();
+			}
+		}
+
+		synchronized Histogram drain() {
+			total.reset();
+			for (int i = 0; i < stripes.length; i++) {
+				intervals[i] = stripes[i].getIntervalHistogram(intervals[i]);
+				total.add(intervals[i]);
+			}
+			return total;
+		}
+
+		synchronized void flush(long now) {
+			Histogram histogram = drain();
+			long errorCount = errors.sumThenReset();
+			long seconds = (now - intervalStart) / 1000L;
+			intervalStart = now;
+			if (histogram.getTotalCount() == 0L && errorCount == 0L) {
+				return;
+			}
+			log.info("SLI summary {} ait={} intervalSeconds={} count={} errors={} p50Micros={} p90Micros={} p99Micros={} p999Micros={} maxMicros={}",
+					name, ait, seconds, histogram.getTotalCount(), errorCount,
+					histogram.getValueAtPercentile(50.0) / 1000L, histogram.getValueAtPercentile(90.0) / 1000L,
+					histogram.getValueAtPercentile(99.0) / 1000L, histogram.getValueAtPercentile(99.9) / 1000L,
+					histogram.getMaxValue() / 1000L);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package qslv.reservefunds.rest;
+
+/**
+ * Stages of a single reservation, as tagged on the reservefunds.stage timer.
+ */
+public enum Stage {
+	VALIDATION("validation"),
+	LOOKUP("lookup"),
+	RESERVATION("reservation"),
+	OVERDRAFT_LOOKUP("overdraftLookup"),
+	OVERDRAFT_ATTEMPT("overdraftAttempt");
+
+	private final String tag;
+
+	Stage(String tag) {
+		this.tag = tag;
+	}
+
+	public String getTag() {
+		return tag;
+	}
+}
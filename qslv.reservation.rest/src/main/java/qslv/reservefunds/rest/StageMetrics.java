@@ -0,0 +1,98 @@
+package qslv.reservefunds.rest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+/**
+ * Per-stage latency histograms for /ReserveFunds: reservefunds.stage tagged stage and outcome
+ * (SUCCESS, SUCCESS_OVERDRAFT, INSUFFICIENT_FUNDS, error), and reservefunds.remote.retries, the
+ * retry count of each Transaction Service call tagged outcome success/error. Every meter is
+ * registered up front with a percentile histogram, so recording neither looks up nor allocates a meter.
+ * Scraped from /actuator/prometheus.
+ */
+@Component
+public class StageMetrics {
+	public static final String SUCCESS = "SUCCESS";
+	public static final String SUCCESS_OVERDRAFT = "SUCCESS_OVERDRAFT";
+	public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+	public static final String ERROR = "error";
+	private static final String[] OUTCOMES = { SUCCESS, SUCCESS_OVERDRAFT, INSUFFICIENT_FUNDS, ERROR };
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Timer[][] stageTimers;
+	private DistributionSummary retriesSuccess;
+	private DistributionSummary retriesError;
+
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	void init() {
+		stageTimers = new Timer[Stage.values().length][OUTCOMES.length];
+		for (Stage stage : Stage.values()) {
+			for (int outcome = 0; outcome < OUTCOMES.length; outcome++) {
+				stageTimers[stage.ordinal()][outcome] = Timer.builder("reservefunds.stage")
+						.tag("stage", stage.getTag())
+						.tag("outcome", OUTCOMES[outcome])
+						.publishPercentileHistogram()
+						.minimumExpectedValue(Duration.ofNanos(100000L))
+						.maximumExpectedValue(Duration.ofSeconds(10L))
+						.register(meterRegistry);
+			}
+		}
+		retriesSuccess = retries("success");
+		retriesError = retries("error");
+	}
+
+	private DistributionSummary retries(String outcome) {
+		return DistributionSummary.builder("reservefunds.remote.retries")
+				.tag("dependency", ResilienceConfig.TRANSACTION_SERVICE)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.maximumExpectedValue(16L)
+				.register(meterRegistry);
+	}
+
+	public static String outcome(ReserveFundsResponse response) {
+		if (response.getStatus() == ReserveFundsResponse.SUCCESS) {
+			return SUCCESS;
+		}
+		if (response.getStatus() == ReserveFundsResponse.SUCCESS_OVERDRAFT) {
+			return SUCCESS_OVERDRAFT;
+		}
+		return INSUFFICIENT_FUNDS;
+	}
+
+	public void record(StageTimings timings, String outcome) {
+		int column = column(outcome);
+		for (int i = 0; i < timings.size(); i++) {
+			stageTimers[timings.stage(i).ordinal()][column].record(timings.nanos(i), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	public void recordRetries(boolean success, int retries) {
+		(success ? retriesSuccess : retriesError).record(retries);
+	}
+
+	private static int column(String outcome) {
+		for (int i = 0; i < OUTCOMES.length; i++) {
+			if (OUTCOMES[i].equals(outcome)) {
+				return i;
+			}
+		}
+		return OUTCOMES.length - 1;
+	}
+}
@@ -0,0 +1,62 @@
+package qslv.reservefunds.rest;
+
+import java.util.Arrays;
+
+/**
+ * Stage durations collected over one request and published by StageMetrics once the outcome is known.
+ * The synchronous path finds the request's timings through a thread local bound by the controller;
+ * asynchronous code captures current() on the request thread and records into it from callbacks,
+ * one stage at a time. Without a bound request, current() returns an instance that records nothing.
+ */
+public class StageTimings {
+	private static final ThreadLocal<StageTimings> CURRENT = new ThreadLocal<StageTimings>();
+	private static final StageTimings NONE = new StageTimings() {
+		@Override
+		public void record(Stage stage, long nanos) {
+		}
+	};
+
+	private Stage[] stages = new Stage[8];
+	private long[] nanos = new long[8];
+	private int size = 0;
+
+	public static StageTimings begin() {
+		StageTimings timings = new StageTimings();
+		CURRENT.set(timings);
+		return timings;
+	}
+
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	public static StageTimings current() {
+		StageTimings timings = CURRENT.get();
+		return timings == null ? NONE : timings;
+	}
+
+	public void record(Stage stage, long nanos) {
+		if (size == stages.length) {
+			stages = Arrays.copyOf(stages, size * 2);
+			this.nanos = Arrays.copyOf(this.nanos, size * 2);
+		}
+		stages[size] = stage;
+		this.nanos[size++] = nanos;
+	}
+
+	public void since(Stage stage, long startNanos) {
+		record(stage, System.nanoTime() - startNanos);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Stage stage(int index) {
+		return stages[index];
+	}
+
+	public long nanos(int index) {
+		return nanos[index];
+	}
+}
@@ -0,0 +1,168 @@
+package qslv.reservefunds.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Head-sampled spans go straight to a batch processor. Spans the head sampler only recorded are held
+ * per trace until the trace's local root ends; the trace is then exported if the root took at least
+ * the latency threshold or any span ended in error, and dropped otherwise. At most maxTraces traces
+ * are held; spans of further traces are dropped. A span that ends after its root has been decided is
+ * dropped, and a trace whose root never ends is evicted after maxTraceAge. Kept traces are exported
+ * on a single background thread with room for maxTraces queued traces; beyond that they are dropped.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+	private static final Logger log = LoggerFactory.getLogger(TailSamplingSpanProcessor.class);
+
+	private final SpanExporter exporter;
+	private final SpanProcessor sampled;
+	private final Executor exports;
+	private final long thresholdNanos;
+	private final int maxTraces;
+	private final Cache<String, List<SpanData>> pending;
+	private final Cache<String, Boolean> decided;
+
+	public TailSamplingSpanProcessor(SpanExporter exporter, long threshold, long maxTraceAge, TimeUnit unit, int maxTraces) {
+		this(exporter, BatchSpanProcessor.builder(exporter).build(), exportExecutor(maxTraces), threshold, maxTraceAge, unit, maxTraces);
+	}
+
+	TailSamplingSpanProcessor(SpanExporter exporter, SpanProcessor sampled, Executor exports, long threshold, long maxTraceAge,
+			TimeUnit unit, int maxTraces) {
+		this.exporter = exporter;
+		this.sampled = sampled;
+		this.exports = exports;
+		this.thresholdNanos = unit.toNanos(threshold);
+		this.maxTraces = maxTraces;
+		this.pending = Caffeine.newBuilder().expireAfterWrite(maxTraceAge, unit).build();
+		this.decided = Caffeine.newBuilder().expireAfterWrite(maxTraceAge, unit).maximumSize(maxTraces).build();
+	}
+
+	private static ExecutorService exportExecutor(int maxTraces) {
+		return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(maxTraces),
+				new CustomizableThreadFactory("tail-export-"),
+				(export, executor) -> log.debug("export queue full, dropping a kept trace"));
+	}
+
+	@Override
+	public void onStart(Context parentContext, ReadWriteSpan span) {
+	}
+
+	@Override
+	public boolean isStartRequired() {
+		return false;
+	}
+
+	@Override
+	public void onEnd(ReadableSpan span) {
+		if (span.getSpanContext().isSampled()) {
+			sampled.onEnd(span);
+			return;
+		}
+		String traceId = span.getSpanContext().getTraceId();
+		SpanContext parent = span.getParentSpanContext();
+		if (parent.isValid() && false == parent.isRemote()) {
+			if (decided.getIfPresent(traceId) != null) {
+				return;
+			}
+			List<SpanData> trace = pending.getIfPresent(traceId);
+			if (trace == null && pending.estimatedSize() < maxTraces) {
+				trace = pending.get(traceId, id -> Collections.synchronizedList(new ArrayList<SpanData>()));
+			}
+			if (trace != null) {
+				trace.add(span.toSpanData());
+			}
+			return;
+		}
+
+		decided.put(traceId, Boolean.TRUE);
+		List<SpanData> trace = pending.asMap().remove(traceId);
+		SpanData root = span.toSpanData();
+		if (span.getLatencyNanos() < thresholdNanos && false == hasError(root, trace)) {
+			return;
+		}
+		List<SpanData> export = new ArrayList<SpanData>(trace == null ? 1 : trace.size() + 1);
+		if (trace != null) {
+			synchronized (trace) {
+				export.addAll(trace);
+			}
+		}
+		export.add(root);
+		log.debug("onEnd keeping trace {} {} spans {} ns", traceId, export.size(), span.getLatencyNanos());
+		exports.execute(() -> exporter.export(export));
+	}
+
+	private static boolean hasError(SpanData root, List<SpanData> trace) {
+		if (root.getStatus().getStatusCode() == StatusCode.ERROR) {
+			return true;
+		}
+		if (trace == null) {
+			return false;
+		}
+		synchronized (trace) {
+			for (SpanData span : trace) {
+				if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean isEndRequired() {
+		return true;
+	}
+
+	int pendingTraces() {
+		return (int) pending.estimatedSize();
+	}
+
+	@Override
+	public CompletableResultCode forceFlush() {
+		// exports run in order, so this completes once the traces queued before it are exported.
+		CompletableResultCode exported = new CompletableResultCode();
+		exports.execute(exported::succeed);
+		return CompletableResultCode.ofAll(Arrays.asList(exported, sampled.forceFlush()));
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		pending.invalidateAll();
+		if (exports instanceof ExecutorService) {
+			ExecutorService executor = (ExecutorService) exports;
+			executor.shutdown();
+			try {
+				executor.awaitTermination(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		// the batch processor shuts the exporter down, so the kept traces go first.
+		return sampled.shutdown();
+	}
+}
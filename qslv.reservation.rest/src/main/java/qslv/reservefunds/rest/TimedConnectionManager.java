@@ -0,0 +1,99 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pooling connection manager for the Transaction Service client.
+ * Publishes pool gauges (leased, available, pending, max) and times how long
+ * each request waits to lease a connection, so the pool can be sized from data.
+ * With lease permits set, callers wait for a free connection on a Semaphore in front of the pool
+ * instead of inside HttpCore's synchronized lease, which would pin a virtual thread's carrier.
+ */
+public class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+	private static final String POOL = "reservefunds.rest.pool";
+
+	private final Timer leaseTimer;
+	private Semaphore leasePermits;
+
+	public TimedConnectionManager(long timeToLive, MeterRegistry registry) {
+		super(timeToLive, TimeUnit.MILLISECONDS);
+
+		leaseTimer = Timer.builder(POOL + ".lease.wait")
+				.description("Time spent waiting to lease a Transaction Service connection")
+				.register(registry);
+		Gauge.builder(POOL + ".leased", this, cm -> cm.getTotalStats().getLeased()).register(registry);
+		Gauge.builder(POOL + ".available", this, cm -> cm.getTotalStats().getAvailable()).register(registry);
+		Gauge.builder(POOL + ".pending", this, cm -> cm.getTotalStats().getPending()).register(registry);
+		Gauge.builder(POOL + ".max", this, cm -> cm.getTotalStats().getMax()).register(registry);
+	}
+
+	/**
+	 * Bounds concurrent leases to permits, which should not exceed the route's maximum connections.
+	 */
+	public void setLeasePermits(int permits) {
+		this.leasePermits = new Semaphore(permits, true);
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+		final ConnectionRequest request = super.requestConnection(route, state);
+		return new ConnectionRequest() {
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit tunit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				long start = System.nanoTime();
+				try {
+					if (leasePermits == null) {
+						return request.get(timeout, tunit);
+					}
+					acquirePermit(timeout, tunit);
+					try {
+						return request.get(timeout, tunit);
+					} catch (InterruptedException | ExecutionException | ConnectionPoolTimeoutException | RuntimeException ex) {
+						leasePermits.release();
+						throw ex;
+					}
+				} finally {
+					leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+
+	private void acquirePermit(long timeout, TimeUnit tunit) throws InterruptedException, ConnectionPoolTimeoutException {
+		if (timeout <= 0) {
+			leasePermits.acquire();
+		} else if (false == leasePermits.tryAcquire(timeout, tunit)) {
+			throw new ConnectionPoolTimeoutException("Timeout waiting for connection lease permit");
+		}
+	}
+
+	@Override
+	public void releaseConnection(final HttpClientConnection managedConn, final Object state, final long keepalive,
+			final TimeUnit tunit) {
+		try {
+			super.releaseConnection(managedConn, state, keepalive, tunit);
+		} finally {
+			if (leasePermits != null) {
+				leasePermits.release();
+			}
+		}
+	}
+}
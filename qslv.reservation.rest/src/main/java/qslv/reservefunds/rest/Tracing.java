@@ -0,0 +1,78 @@
+package qslv.reservefunds.rest;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+/**
+ * W3C trace context propagation and span helpers shared by the controller and the DAOs.
+ * Components default to NOOP_TRACER, so they trace nothing until TracingConfig supplies a tracer.
+ */
+final class Tracing {
+	static final String INSTRUMENTATION = "qslv.reservefunds";
+	static final Tracer NOOP_TRACER = OpenTelemetry.noop().getTracer(INSTRUMENTATION);
+
+	private static final TextMapGetter<Map<String, String>> MAP_GETTER = new TextMapGetter<Map<String, String>>() {
+		public Iterable<String> keys(Map<String, String> carrier) {
+			return carrier.keySet();
+		}
+		// header names are case-insensitive; the servlet container keeps the caller's casing.
+		public String get(Map<String, String> carrier, String key) {
+			if (carrier == null) {
+				return null;
+			}
+			String value = carrier.get(key);
+			if (value == null) {
+				for (Map.Entry<String, String> header : carrier.entrySet()) {
+					if (key.equalsIgnoreCase(header.getKey())) {
+						return header.getValue();
+					}
+				}
+			}
+			return value;
+		}
+	};
+	private static final TextMapSetter<HttpHeaders> HEADER_SETTER = new TextMapSetter<HttpHeaders>() {
+		public void set(HttpHeaders carrier, String key, String value) {
+			carrier.set(key, value);
+		}
+	};
+
+	private Tracing() {
+	}
+
+	/**
+	 * Parent context from the caller's traceparent/tracestate; the root context when there are none.
+	 */
+	static Context extract(Map<String, String> headers) {
+		return W3CTraceContextPropagator.getInstance().extract(Context.root(), headers, MAP_GETTER);
+	}
+
+	static void inject(Context context, HttpHeaders headers) {
+		W3CTraceContextPropagator.getInstance().inject(context, headers, HEADER_SETTER);
+	}
+
+	/**
+	 * Carries the current context to a supplier run on another thread. Returns the supplier as is
+	 * when there is nothing to carry.
+	 */
+	static <T> Supplier<T> wrap(Supplier<T> supplier) {
+		Context context = Context.current();
+		return context == Context.root() ? supplier : context.wrapSupplier(supplier);
+	}
+
+	static void error(Span span, Throwable ex) {
+		span.recordException(ex);
+		span.setStatus(StatusCode.ERROR);
+	}
+}
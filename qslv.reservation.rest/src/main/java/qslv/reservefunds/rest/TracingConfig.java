@@ -0,0 +1,97 @@
+package qslv.reservefunds.rest;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+/**
+ * Request tracing, off unless qslv.tracing-enabled. Head sampling keeps qslv.tracing-sample-rate of
+ * new traces and follows the caller's decision when a traceparent arrives. With tail sampling on, the
+ * traces the head sampler passes over are still recorded and exported when slower than
+ * qslv.tracing-tail-latency-threshold ms or in error. Spans are written to qslv.tracing-file.
+ */
+@Configuration
+public class TracingConfig {
+	@Autowired
+	private ConfigProperties config;
+
+	@Bean
+	public TracerProvider tracerProvider() throws IOException {
+		if (false == config.isTracingEnabled()) {
+			return TracerProvider.noop();
+		}
+		FileSpanExporter exporter = new FileSpanExporter(Paths.get(config.getTracingFile()));
+		return SdkTracerProvider.builder()
+				.setResource(Resource.getDefault().merge(Resource.builder().put("service.name", Tracing.INSTRUMENTATION).build()))
+				.setSampler(sampler(config))
+				.addSpanProcessor(spanProcessor(config, exporter))
+				.build();
+	}
+
+	@Bean
+	public Tracer tracer(TracerProvider tracerProvider) {
+		return tracerProvider.get(Tracing.INSTRUMENTATION);
+	}
+
+	static Sampler sampler(ConfigProperties config) {
+		Sampler head = Sampler.traceIdRatioBased(config.getTracingSampleRate());
+		if (false == config.isTracingTailSamplingEnabled()) {
+			return Sampler.parentBased(head);
+		}
+		return Sampler.parentBasedBuilder(new RecordUnsampled(head))
+				.setRemoteParentNotSampled(RecordUnsampled.RECORD_ONLY)
+				.setLocalParentNotSampled(RecordUnsampled.RECORD_ONLY)
+				.build();
+	}
+
+	static SpanProcessor spanProcessor(ConfigProperties config, FileSpanExporter exporter) {
+		if (false == config.isTracingTailSamplingEnabled()) {
+			return BatchSpanProcessor.builder(exporter).build();
+		}
+		return new TailSamplingSpanProcessor(exporter, config.getTracingTailLatencyThreshold(), config.getTracingTailMaxTraceAge(),
+				TimeUnit.MILLISECONDS, config.getTracingTailMaxTraces());
+	}
+
+	/**
+	 * Records what the delegate would drop, so the tail sampler gets to see it.
+	 */
+	static class RecordUnsampled implements Sampler {
+		static final Sampler RECORD_ONLY = new RecordUnsampled(Sampler.alwaysOff());
+		private final Sampler delegate;
+
+		RecordUnsampled(Sampler delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+				Attributes attributes, List<LinkData> parentLinks) {
+			SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+			return result.getDecision() == SamplingDecision.DROP ? SamplingResult.recordOnly() : result;
+		}
+
+		@Override
+		public String getDescription() {
+			return "RecordUnsampled{" + delegate.getDescription() + "}";
+		}
+	}
+}
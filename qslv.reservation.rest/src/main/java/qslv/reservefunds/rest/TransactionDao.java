@@ -1,11 +1,18 @@
 package qslv.reservefunds.rest;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -18,6 +25,15 @@ import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.netty.channel.ChannelException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import qslv.common.TimedResponse;
 import qslv.common.TraceableRequest;
 import qslv.transaction.request.ReservationRequest;
@@ -27,6 +43,7 @@ import qslv.util.RestClientElapsedTimeSLILogger;
 @Repository
 public class TransactionDao {
 	private static final Logger log = LoggerFactory.getLogger(TransactionDao.class);
+	static final String TRANSACTION_SERVICE_SLI = "rest::TransactionService";
 	private ParameterizedTypeReference<TimedResponse<ReservationResponse>> typeReference 
 		= new ParameterizedTypeReference<TimedResponse<ReservationResponse>>() {};
 
@@ -38,6 +55,21 @@ public class TransactionDao {
 	private RestTemplate restTemplate;
 	@Autowired
 	private RetryTemplate retryTemplate;
+	@Autowired
+	private WebClient webClient;
+	@Autowired
+	private ScheduledExecutorService reservationRetryScheduler;
+	@Autowired
+	@Qualifier("transactionServiceGuard")
+	private DependencyGuard transactionServiceGuard;
+	@Autowired(required = false)
+	private StageMetrics stageMetrics;
+	@Autowired(required = false)
+	private RemoteCallMetrics remoteCallMetrics;
+	@Autowired(required = false)
+	private Tracer tracer = Tracing.NOOP_TRACER;
+	@Autowired(required = false)
+	private SliAggregator sliAggregator;
 
 	public void setConfig(ConfigProperties config) {
 		this.config = config;
@@ -48,37 +80,226 @@ public class TransactionDao {
 	public void setRestTimer( RestClientElapsedTimeSLILogger restTimer) {
 		this.restTimer=restTimer;
 	}
+	public void setWebClient(WebClient webClient) {
+		this.webClient = webClient;
+	}
+	public void setRetryScheduler(ScheduledExecutorService reservationRetryScheduler) {
+		this.reservationRetryScheduler = reservationRetryScheduler;
+	}
+	public void setTransactionServiceGuard(DependencyGuard transactionServiceGuard) {
+		this.transactionServiceGuard = transactionServiceGuard;
+	}
+	public void setStageMetrics(StageMetrics stageMetrics) {
+		this.stageMetrics = stageMetrics;
+	}
+	public void setRemoteCallMetrics(RemoteCallMetrics remoteCallMetrics) {
+		this.remoteCallMetrics = remoteCallMetrics;
+	}
+	public void setTracer(Tracer tracer) {
+		this.tracer = tracer;
+	}
+	public void setSliAggregator(SliAggregator sliAggregator) {
+		this.sliAggregator = sliAggregator;
+	}
+
+	private <T> T guarded(Supplier<T> call) {
+		return transactionServiceGuard == null ? call.get() : transactionServiceGuard.call(call);
+	}
+
+	private void recordRetries(boolean success, int retries) {
+		// -1 when the guard rejected the call before the first attempt.
+		if (stageMetrics != null && retries >= 0) {
+			stageMetrics.recordRetries(success, retries);
+		}
+	}
+
+	private Span attemptSpan(Context parent, int attempt) {
+		return tracer.spanBuilder("POST TransactionService")
+				.setParent(parent)
+				.setSpanKind(SpanKind.CLIENT)
+				.setAttribute("http.method", "POST")
+				.setAttribute("http.url", config.getReservationUrl())
+				.setAttribute("retry.attempt", attempt)
+				.startSpan();
+	}
+
+	private void recordSli(long attemptStart, boolean error) {
+		if (sliAggregator != null) {
+			sliAggregator.record(TRANSACTION_SERVICE_SLI, System.nanoTime() - attemptStart, error);
+		}
+	}
+
+	private void recordAttempt(int attempt, long attemptStart, TimedResponse<ReservationResponse> response) {
+		recordSli(attemptStart, false);
+		if (remoteCallMetrics != null) {
+			remoteCallMetrics.attempt(attempt, System.nanoTime() - attemptStart, response);
+		}
+	}
+
+	private void recordFailedAttempt(int attempt, long attemptStart) {
+		recordSli(attemptStart, true);
+		if (remoteCallMetrics != null) {
+			remoteCallMetrics.failedAttempt(attempt, System.nanoTime() - attemptStart);
+		}
+	}
+
+	private void recordRetryCost(int attempt, long callStart, long attemptStart) {
+		if (remoteCallMetrics != null && attempt > 1) {
+			remoteCallMetrics.retryCost(attemptStart - callStart);
+		}
+	}
 	
 	public ReservationResponse recordReservation(final Map<String, String> callingHeaders,
 			final ReservationRequest request) {
-		log.trace("recordReservation ENTRY {}", request.toString());
+		log.trace("recordReservation ENTRY {}", request);
 
 		ResponseEntity<TimedResponse<ReservationResponse>> response;
+		final int[] retries = new int[] { -1 };
+		final long callStart = System.nanoTime();
+		final long[] attemptStart = new long[1];
 		try {
-			response = retryTemplate.execute(new RetryCallback<ResponseEntity<TimedResponse<ReservationResponse>>, ResourceAccessException>() {
+			// the breaker sees the outcome of the whole retry sequence, not each attempt.
+			response = guarded(() -> retryTemplate.execute(new RetryCallback<ResponseEntity<TimedResponse<ReservationResponse>>, ResourceAccessException>() {
 					public ResponseEntity<TimedResponse<ReservationResponse>> doWithRetry( RetryContext context) throws ResourceAccessException {
-						return restTimer.logElapsedTime(() -> {
-							return restTemplate.exchange(config.getReservationUrl(), HttpMethod.POST, 
-									new HttpEntity<ReservationRequest>(request, buildHeaders(callingHeaders)), typeReference);
-						});
-				} });
+						retries[0] = context.getRetryCount();
+						attemptStart[0] = System.nanoTime();
+						ReserveFundsEvent event = ReserveFundsEvent.start();
+						Span span = attemptSpan(Context.current(), retries[0] + 1);
+						ResponseEntity<TimedResponse<ReservationResponse>> attempt;
+						// buildHeaders propagates the attempt span as the Transaction Service's parent.
+						try (Scope scope = span.makeCurrent()) {
+							Supplier<ResponseEntity<TimedResponse<ReservationResponse>>> exchange = () -> {
+								return restTemplate.exchange(config.getReservationUrl(), HttpMethod.POST, 
+										new HttpEntity<ReservationRequest>(request, buildHeaders(config, callingHeaders)), typeReference);
+							};
+							// in SLI aggregate mode only sampled attempts get their own SLI line.
+							attempt = sliAggregator == null || sliAggregator.logCall() ? restTimer.logElapsedTime(exchange::get) : exchange.get();
+						} catch (RuntimeException ex) {
+							Tracing.error(span, ex);
+							span.end();
+							event.end(ReserveFundsEvent.TRANSACTION_SERVICE, request.getAccountNumber(), ReserveFundsEvent.ERROR, retries[0] + 1);
+							recordFailedAttempt(retries[0] + 1, attemptStart[0]);
+							throw ex;
+						}
+						span.end();
+						event.end(ReserveFundsEvent.TRANSACTION_SERVICE, request.getAccountNumber(), ReserveFundsEvent.SUCCESS, retries[0] + 1);
+						recordAttempt(retries[0] + 1, attemptStart[0], attempt.getBody());
+						return attempt;
+				} }));
 		} 
+		catch (CallNotPermittedException | BulkheadFullException ex) {
+			log.warn("recordTransaction EXIT {}", ex.getLocalizedMessage());
+			throw ex;
+		}
 		catch (ResourceAccessException ex ) {
 			String msg = String.format("HTTP POST to URL %s with %d retries failed.", config.getReservationUrl(), config.getRestAttempts());
 			log.warn("recordTransaction EXIT {}", msg);
+			recordRetries(false, retries[0]);
 			throw ex;
 		}
 		catch (Exception ex) {
 			log.debug("recordTransaction EXIT {}", ex.getLocalizedMessage());
+			recordRetries(false, retries[0]);
 			throw ex;
 		}
+		recordRetries(true, retries[0]);
+		recordRetryCost(retries[0] + 1, callStart, attemptStart[0]);
 		
-		//TODO compare remote time vs. local time
 		log.trace("recordReservation EXIT");
 		return response.getBody().getPayload();
 	}
 	
-	private HttpHeaders buildHeaders(final Map<String, String> callingHeaders) {
+	/**
+	 * Non-blocking variant of recordReservation. The HTTP call runs on the WebClient event loop
+	 * and retries are scheduled on a timer, so no thread is held while waiting or backing off.
+	 */
+	public CompletableFuture<ReservationResponse> recordReservationAsync(final Map<String, String> callingHeaders,
+			final ReservationRequest request) {
+		log.trace("recordReservationAsync ENTRY {}", request);
+
+		final HttpHeaders headers = buildHeaders(config, callingHeaders);
+		// retries run on the scheduler thread, so each attempt is parented explicitly.
+		final Context parent = Context.current();
+		return transactionServiceGuard == null ? startReservation(headers, request, parent)
+				: transactionServiceGuard.callAsync(() -> startReservation(headers, request, parent));
+	}
+
+	private CompletableFuture<ReservationResponse> startReservation(final HttpHeaders headers, final ReservationRequest request,
+			final Context parent) {
+		CompletableFuture<ReservationResponse> result = new CompletableFuture<ReservationResponse>();
+		attemptReservation(headers, request, 1, System.nanoTime(), parent, result);
+		return result;
+	}
+
+	private void attemptReservation(final HttpHeaders headers, final ReservationRequest request, final int attempt,
+			final long callStart, final Context parent, final CompletableFuture<ReservationResponse> result) {
+		final long attemptStart = System.nanoTime();
+		final ReserveFundsEvent event = ReserveFundsEvent.start();
+		final Span span = attemptSpan(parent, attempt);
+		webClient.post()
+			.uri(config.getReservationUrl())
+			.headers(h -> {
+				h.addAll(headers);
+				Tracing.inject(parent.with(span), h);
+			})
+			.bodyValue(request)
+			.retrieve()
+			.bodyToMono(typeReference)
+			.timeout(Duration.ofMillis(config.getRestTimeout()))
+			.toFuture()
+			.whenComplete((response, ex) -> {
+				if (ex != null) {
+					Tracing.error(span, ex);
+				}
+				span.end();
+				event.end(ReserveFundsEvent.TRANSACTION_SERVICE, request.getAccountNumber(),
+						ex == null ? ReserveFundsEvent.SUCCESS : ReserveFundsEvent.ERROR, attempt);
+				if (ex == null) {
+					log.trace("recordReservationAsync EXIT");
+					recordAttempt(attempt, attemptStart, response);
+					recordRetries(true, attempt - 1);
+					recordRetryCost(attempt, callStart, attemptStart);
+					result.complete(response.getPayload());
+					return;
+				}
+				Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+				recordFailedAttempt(attempt, attemptStart);
+				if (attempt < config.getRestAttempts() && isRetryable(cause)) {
+					log.debug("recordReservationAsync attempt {} failed. {}", attempt, cause.getLocalizedMessage());
+					reservationRetryScheduler.schedule(() -> attemptReservation(headers, request, attempt + 1, callStart, parent, result),
+							backoffDelay(config, attempt), TimeUnit.MILLISECONDS);
+				} else if (cause instanceof RuntimeException && false == isTransportFailure(cause)) {
+					log.debug("recordReservationAsync EXIT {}", cause.getLocalizedMessage());
+					recordRetries(false, attempt - 1);
+					result.completeExceptionally(cause);
+				} else {
+					String msg = String.format("HTTP POST to URL %s with %d retries failed.", config.getReservationUrl(), config.getRestAttempts());
+					log.warn("recordReservationAsync EXIT {}", msg);
+					recordRetries(false, attempt - 1);
+					ResourceAccessException rae = new ResourceAccessException(msg);
+					rae.initCause(cause);
+					result.completeExceptionally(rae);
+				}
+			});
+	}
+
+	// same curve as the ExponentialBackOffPolicy used by the blocking path.
+	static long backoffDelay(ConfigProperties config, int attempt) {
+		long delay = (long) config.getRestBackoffDelay() << Math.min(attempt - 1, 16);
+		return Math.min(delay, config.getRestBackoffDelayMax());
+	}
+
+	// as in the blocking path, only a failure to reach the Transaction Service is worth another attempt.
+	static boolean isRetryable(Throwable cause) {
+		return false == (cause instanceof RuntimeException) || isTransportFailure(cause);
+	}
+
+	// checked exceptions (IOException, TimeoutException) are always transport failures.
+	static boolean isTransportFailure(Throwable cause) {
+		return cause instanceof ResourceAccessException || cause instanceof ChannelException;
+	}
+
+	static HttpHeaders buildHeaders(final ConfigProperties config, final Map<String, String> callingHeaders) {
 		HttpHeaders headers = new HttpHeaders();
 		headers.setContentType(MediaType.APPLICATION_JSON);
 		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON) );
@@ -86,6 +307,7 @@ public class TransactionDao {
 		headers.add(TraceableRequest.BUSINESS_TAXONOMY_ID, callingHeaders.get(TraceableRequest.BUSINESS_TAXONOMY_ID));
 		headers.add(TraceableRequest.CORRELATION_ID, callingHeaders.get(TraceableRequest.CORRELATION_ID));
 		headers.add(TraceableRequest.ACCEPT_VERSION, ReservationRequest.VERSION_1_0);
+		Tracing.inject(Context.current(), headers);
 		return headers;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package qslv.reservefunds.rest;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With qslv.virtual-threads-enabled, Tomcat runs every request on its own virtual thread instead of
+ * its worker pool, so the blocking JdbcTemplate and RestTemplate calls in the request path park a
+ * virtual thread rather than hold a platform thread. Concurrency is then bounded by the Hikari pool,
+ * the Transaction Service connection pool and the bulkheads, not by server.tomcat.max-threads.
+ * See the virtual-threads Maven profile for the driver and container versions that do not pin carriers.
+ */
+@Configuration
+public class VirtualThreadConfig {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	@Autowired
+	private ConfigProperties config;
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler() {
+		return protocolHandler -> {
+			if (config.isVirtualThreadsEnabled()) {
+				ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+				protocolHandler.setExecutor(executor);
+				log.info("Tomcat requests run on virtual threads.");
+			}
+		};
+	}
+}
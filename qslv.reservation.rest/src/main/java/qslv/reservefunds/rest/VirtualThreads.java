@@ -0,0 +1,41 @@
+package qslv.reservefunds.rest;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread executors, looked up reflectively so the service still compiles for and runs on Java 11.
+ * Requires a JDK with virtual threads (21+) at runtime.
+ */
+public final class VirtualThreads {
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Executor that starts a new virtual thread, named prefix0, prefix1, ..., for every task.
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+			Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) perTask.invoke(null, factory);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("qslv.virtual-threads-enabled requires a JDK with virtual threads (21+), running "
+					+ System.getProperty("java.version"), ex);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import qslv.data.Account;
+import qslv.data.DebitCard;
+
+@ExtendWith(MockitoExtension.class)
+class Unit_AccountLookup {
+	@Mock
+	JdbcDao jdbcDao;
+
+	AccountLookup accountLookup = new AccountLookup();
+	ConfigProperties config = new ConfigProperties();
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	public void init() {
+		config.setLookupCacheEnabled(true);
+		accountLookup.setJdbcDao(jdbcDao);
+		accountLookup.setConfig(config);
+		accountLookup.setMeterRegistry(registry);
+		accountLookup.init();
+	}
+
+	private DebitCard debitCard(String cardNumber, String accountNumber, String status) {
+		DebitCard debitCard = new DebitCard();
+		debitCard.setDebitCardNumber(cardNumber);
+		debitCard.setDebitCardLifeCycleStatus(status);
+		debitCard.setAccount(new Account());
+		debitCard.getAccount().setAccountNumber(accountNumber);
+		debitCard.getAccount().setAccountLifeCycleStatus("EF");
+		return debitCard;
+	}
+
+	@Test
+	void test_getDebitCardAndAccount_cached() {
+		DebitCard setupDebit = debitCard("2734827349", "DDDD3456HKWER7890", "EF");
+		when(jdbcDao.getDebitCardAndAccount("2734827349")).thenReturn(setupDebit);
+
+		assertSame(setupDebit, accountLookup.getDebitCardAndAccount("2734827349"));
+		assertSame(setupDebit, accountLookup.getDebitCardAndAccount("2734827349"));
+
+		verify(jdbcDao, times(1)).getDebitCardAndAccount("2734827349");
+		assertEquals(1.0, registry.get("cache.gets").tag("cache", "debitCardLookup").tag("result", "hit").functionCounter().count());
+	}
+
+	@Test
+	void test_getDebitCardAndAccount_negativeCached() {
+		DebitCard setupDebit = debitCard("2734827349", "DDDD3456HKWER7890", "CL");
+		when(jdbcDao.getDebitCardAndAccount("2734827349")).thenReturn(setupDebit);
+
+		accountLookup.getDebitCardAndAccount("2734827349");
+		accountLookup.getDebitCardAndAccount("2734827349");
+
+		verify(jdbcDao, times(1)).getDebitCardAndAccount("2734827349");
+	}
+
+	@Test
+	void test_getAccount_errorNotCached() {
+		when(jdbcDao.getAccount("DDDD3456HKWER7890"))
+			.thenThrow(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 (!= 1) account_balance rows returned."));
+
+		assertThrows(ResponseStatusException.class, () -> accountLookup.getAccount("DDDD3456HKWER7890"));
+		assertThrows(ResponseStatusException.class, () -> accountLookup.getAccount("DDDD3456HKWER7890"));
+
+		verify(jdbcDao, times(2)).getAccount("DDDD3456HKWER7890");
+	}
+
+	@Test
+	void test_slowLoad_doesNotBlockOtherKeys() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Account slow = new Account();
+		slow.setAccountLifeCycleStatus("EF");
+		Account fast = new Account();
+		fast.setAccountLifeCycleStatus("EF");
+		when(jdbcDao.getAccount("SLOW")).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return slow;
+		});
+		when(jdbcDao.getAccount("FAST")).thenReturn(fast);
+
+		Thread loader = new Thread(() -> accountLookup.getAccount("SLOW"));
+		loader.start();
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+		assertSame(fast, accountLookup.getAccount("FAST"));
+		release.countDown();
+		loader.join();
+		assertSame(slow, accountLookup.getAccount("SLOW"));
+		verify(jdbcDao, times(1)).getAccount("SLOW");
+	}
+
+	@Test
+	void test_getAccountAndOverdraft_readsThroughCache() {
+		CombinedLookup combined = new CombinedLookup();
+		combined.setAccount(new Account());
+		combined.getAccount().setAccountNumber("DDDD3456HKWER7890");
+		combined.getAccount().setAccountLifeCycleStatus("EF");
+		when(jdbcDao.getAccountAndOverdraft("DDDD3456HKWER7890")).thenReturn(combined);
+
+		assertSame(combined, accountLookup.getAccountAndOverdraft("DDDD3456HKWER7890"));
+		CombinedLookup cached = accountLookup.getAccountAndOverdraft("DDDD3456HKWER7890");
+		assertSame(combined.getAccount(), cached.getAccount());
+		assertNull(cached.getOverdraftInstructions());
+		assertSame(combined.getAccount(), accountLookup.getAccount("DDDD3456HKWER7890"));
+
+		verify(jdbcDao, times(1)).getAccountAndOverdraft("DDDD3456HKWER7890");
+		verify(jdbcDao, never()).getAccount(anyString());
+	}
+
+	@Test
+	void test_evictAccount_evictsDebitCards() {
+		DebitCard setupDebit = debitCard("2734827349", "DDDD3456HKWER7890", "EF");
+		when(jdbcDao.getDebitCardAndAccount("2734827349")).thenReturn(setupDebit);
+
+		accountLookup.getDebitCardAndAccount("2734827349");
+		accountLookup.evictAccount("DDDD3456HKWER7890");
+		accountLookup.getDebitCardAndAccount("2734827349");
+
+		verify(jdbcDao, times(2)).getDebitCardAndAccount("2734827349");
+	}
+
+	@Test
+	void test_disabled_passThrough() {
+		config.setLookupCacheEnabled(false);
+		AccountLookup passThrough = new AccountLookup();
+		passThrough.setJdbcDao(jdbcDao);
+		passThrough.setConfig(config);
+		passThrough.init();
+
+		Account account = new Account();
+		when(jdbcDao.getAccount("DDDD3456HKWER7890")).thenReturn(account);
+
+		passThrough.getAccount("DDDD3456HKWER7890");
+		passThrough.getAccount("DDDD3456HKWER7890");
+
+		verify(jdbcDao, times(2)).getAccount("DDDD3456HKWER7890");
+	}
+
+	@Test
+	void test_getAccount_errorRemovesEntry() {
+		Account setupAccount = new Account();
+		setupAccount.setAccountNumber("DDDD3456HKWER7890");
+		when(jdbcDao.getAccount("DDDD3456HKWER7890"))
+			.thenThrow(new AssertionError("loader failed"))
+			.thenReturn(setupAccount);
+
+		assertThrows(AssertionError.class, () -> accountLookup.getAccount("DDDD3456HKWER7890"));
+		assertSame(setupAccount, accountLookup.getAccount("DDDD3456HKWER7890"));
+	}
+}
@@ -0,0 +1,237 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.TracerProvider;
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.data.OverdraftInstruction;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+
+/**
+ * Bytes allocated per POST /ReserveFunds, controller through service, with stub DAOs so only this
+ * service's own allocations are counted. Everything else is wired as configmap.yml deploys it: replay
+ * cache, lookup and overdraft plan caches with single flight, stage metrics, SLI in log mode and the
+ * no-op tracer of tracing-enabled=false. The qslv-common aspects are not woven in, and Caffeine's
+ * maintenance runs on the common pool, so neither is counted.
+ * Each budget is the measured bytes/request plus MARGIN, rounded up to 64 bytes; a failure reports
+ * the measurement and the budget it implies. Re-record after a change that needs or frees memory.
+ */
+class Unit_AllocationBudget {
+	static final double MARGIN = 0.25;
+	static final long SUCCESS_BUDGET = 4160L;
+	static final long OVERDRAFT_SUCCESS_BUDGET = 5760L;
+	static final long INSUFFICIENT_FUNDS_BUDGET = 5632L;
+	static final long VALIDATION_REJECT_BUDGET = 2880L;
+
+	static final int WARMUP = 20000;
+	static final int MEASURED = 10000;
+
+	static final String ACCOUNT = "1234HHHH1234";
+	static final String OVERDRAFT_ACCOUNT = "1234hjkf8943";
+
+	ReserveFundsController controller = new ReserveFundsController();
+	ReserveFundsService service = new ReserveFundsService();
+	StubJdbcDao jdbcDao = new StubJdbcDao();
+	StubTransactionDao trDao = new StubTransactionDao();
+	ConfigProperties config = new ConfigProperties();
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	AccountLookup accountLookup = new AccountLookup();
+	ReplayCache replayCache = new ReplayCache();
+	StageMetrics stageMetrics = new StageMetrics();
+	SliAggregator sliAggregator = new SliAggregator();
+	HashMap<String, String> headers = new HashMap<String, String>();
+	ReserveFundsRequest request = new ReserveFundsRequest();
+	MockHttpServletRequest servletRequest = new MockHttpServletRequest("POST", "/ReserveFunds");
+
+	@BeforeEach
+	public void setup() {
+		config.setLookupCacheEnabled(true);
+		config.setOverdraftPlanCacheEnabled(true);
+		config.setLookupSingleFlightEnabled(true);
+		config.setReplayCacheEnabled(true);
+
+		accountLookup.setJdbcDao(jdbcDao);
+		accountLookup.setConfig(config);
+		accountLookup.setMeterRegistry(registry);
+		accountLookup.init();
+		replayCache.setConfig(config);
+		replayCache.setMeterRegistry(registry);
+		replayCache.init();
+		stageMetrics.setMeterRegistry(registry);
+		stageMetrics.init();
+		sliAggregator.setConfig(config);
+		sliAggregator.init();
+
+		service.setDao(jdbcDao);
+		service.setTrDao(trDao);
+		service.setJdbcExecutor(Runnable::run);
+		service.setBatchExecutor(Runnable::run);
+		service.setAccountLookup(accountLookup);
+		service.setReplayCache(replayCache);
+		service.setConfig(config);
+		service.setMeterRegistry(registry);
+		controller.setConfig(config);
+		controller.setService(service);
+		controller.setStageMetrics(stageMetrics);
+		controller.setTracer(TracerProvider.noop().get(Tracing.INSTRUMENTATION));
+		controller.setSliAggregator(sliAggregator);
+
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+		headers.put(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+
+		request.setAccountNumber(ACCOUNT);
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+	}
+
+	@Test
+	void test_success() {
+		trDao.primaryStatus = ReservationResponse.SUCCESS;
+
+		assertWithinBudget("success", SUCCESS_BUDGET, ReserveFundsResponse.SUCCESS);
+	}
+
+	@Test
+	void test_overdraftSuccess() {
+		request.setProtectAgainstOverdraft(true);
+
+		assertWithinBudget("overdraft success", OVERDRAFT_SUCCESS_BUDGET, ReserveFundsResponse.SUCCESS_OVERDRAFT);
+	}
+
+	@Test
+	void test_insufficientFunds() {
+		request.setProtectAgainstOverdraft(true);
+		trDao.overdraftStatus = ReservationResponse.INSUFFICIENT_FUNDS;
+
+		assertWithinBudget("insufficient funds", INSUFFICIENT_FUNDS_BUDGET, ReserveFundsResponse.INSUFFICIENT_FUNDS);
+	}
+
+	@Test
+	void test_validationReject() {
+		request.setTransactionAmount(0);
+
+		assertWithinBudget("validation reject", VALIDATION_REJECT_BUDGET, -1);
+	}
+
+	private void assertWithinBudget(String path, long budget, int expectedStatus) {
+		com.sun.management.ThreadMXBean threads = threadMXBean();
+
+		for (int i = 0; i < WARMUP; i++) {
+			assertEquals(expectedStatus, post());
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED; i++) {
+			post();
+		}
+		long perRequest = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED;
+
+		assertTrue(perRequest <= budget, String.format("%s allocated %d bytes/request, budget %d, re-recorded budget %d",
+				path, perRequest, budget, withMargin(perRequest)));
+	}
+
+	static long withMargin(long measured) {
+		long budget = (long) Math.ceil(measured * (1.0 + MARGIN));
+		return (budget + 63L) / 64L * 64L;
+	}
+
+	// the status of the response, or -1 when the request was rejected. Every request is new to the
+	// replay cache, and a rejection is rendered the way the exception handler renders it.
+	private int post() {
+		request.setRequestUUID(UUID.randomUUID());
+		try {
+			return controller.postReserveFunds(headers, request).getPayload().getStatus();
+		} catch (RejectedRequestException ex) {
+			controller.rejected(ex, servletRequest);
+			return -1;
+		} catch (ResponseStatusException ex) {
+			return -1;
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean threadMXBean() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "no per-thread allocation counters on this JVM");
+		com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+		assumeTrue(allocation.isThreadAllocatedMemorySupported(), "no per-thread allocation counters on this JVM");
+		allocation.setThreadAllocatedMemoryEnabled(true);
+		return allocation;
+	}
+
+	static class StubJdbcDao extends JdbcDao {
+		final Account account = new Account();
+		final List<OverdraftInstruction> overdraftInstructions = new ArrayList<OverdraftInstruction>();
+
+		StubJdbcDao() {
+			account.setAccountNumber(ACCOUNT);
+			account.setAccountLifeCycleStatus("EF");
+
+			OverdraftInstruction od = new OverdraftInstruction();
+			od.setOverdraftAccount(new Account());
+			od.getOverdraftAccount().setAccountNumber(OVERDRAFT_ACCOUNT);
+			od.getOverdraftAccount().setAccountLifeCycleStatus("EF");
+			od.setInstructionLifecycleStatus("EF");
+			od.setEffectiveStart(LocalDateTime.now().minusYears(1));
+			od.setEffectiveEnd(LocalDateTime.now().plusYears(1));
+			overdraftInstructions.add(od);
+		}
+
+		@Override
+		public Account getAccount(String accountNumber) {
+			return account;
+		}
+
+		@Override
+		public List<OverdraftInstruction> getOverdraftInstructions(String accountNumber) {
+			return overdraftInstructions;
+		}
+	}
+
+	static class StubTransactionDao extends TransactionDao {
+		int primaryStatus = ReservationResponse.INSUFFICIENT_FUNDS;
+		int overdraftStatus = ReservationResponse.SUCCESS;
+		final TransactionResource resource = new TransactionResource();
+
+		StubTransactionDao() {
+			resource.setTransactionUuid(UUID.randomUUID());
+			resource.setAccountNumber(ACCOUNT);
+			resource.setInsertTimestamp(new Timestamp(Instant.now().toEpochMilli()));
+			resource.setReservationUuid(UUID.randomUUID());
+			resource.setRequestUuid(UUID.randomUUID());
+			resource.setRunningBalanceAmount(99999L);
+			resource.setTransactionAmount(-27384L);
+			resource.setTransactionMetaDataJson("{}");
+			resource.setTransactionTypeCode(TransactionResource.RESERVATION);
+		}
+
+		@Override
+		public ReservationResponse recordReservation(Map<String, String> callingHeaders, ReservationRequest request) {
+			int status = ACCOUNT.equals(request.getAccountNumber()) ? primaryStatus : overdraftStatus;
+			return new ReservationResponse(status, resource);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class Unit_AsyncConfig {
+	ExecutorService threadPerTask = Executors.newCachedThreadPool();
+
+	@AfterEach
+	public void shutdown() {
+		threadPerTask.shutdownNow();
+	}
+
+	@Test
+	void test_bounded_limitsRunningTasks() throws InterruptedException {
+		Executor batchExecutor = AsyncConfig.bounded(threadPerTask, 2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger mostRunning = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(10);
+
+		for (int i = 0; i < 10; i++) {
+			batchExecutor.execute(() -> {
+				mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				done.countDown();
+			});
+		}
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(2, mostRunning.get());
+	}
+}
@@ -0,0 +1,91 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class Unit_ConcurrencyLimitFilter {
+	ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+	ConfigProperties config = new ConfigProperties();
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	public void init() {
+		config.setConcurrencyLimitEnabled(true);
+		config.setConcurrencyLimitInitial(1);
+		config.setConcurrencyLimitMin(1);
+		config.setConcurrencyLimitRetryAfter(2);
+		filter.setConfig(config);
+		filter.setMeterRegistry(registry);
+		filter.init();
+	}
+
+	private double count(String outcome) {
+		return registry.get("reservefunds.concurrency.requests").tag("outcome", outcome).counter().count();
+	}
+
+	@Test
+	void test_doFilter_rejectsOverLimit() throws Exception {
+		MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+		// the inner request arrives while the outer one still holds the only slot
+		MockFilterChain holding = new MockFilterChain() {
+			@Override
+			public void doFilter(javax.servlet.ServletRequest request, javax.servlet.ServletResponse response) {
+				try {
+					filter.doFilter(new MockHttpServletRequest("POST", "/ReserveFunds"), rejectedResponse, new MockFilterChain());
+				} catch (Exception ex) {
+					fail(ex);
+				}
+			}
+		};
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/ReserveFunds"), new MockHttpServletResponse(), holding);
+
+		assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejectedResponse.getStatus());
+		assertEquals("2", rejectedResponse.getHeader(HttpHeaders.RETRY_AFTER));
+		assertEquals(1.0, count("accepted"));
+		assertEquals(1.0, count("rejected"));
+		assertEquals(0.0, registry.get("reservefunds.concurrency.inflight").gauge().value());
+	}
+
+	@Test
+	void test_doFilter_exceptionIsDrop() throws Exception {
+		config.setConcurrencyLimitInitial(4);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+		filter.setConfig(config);
+		filter.setMeterRegistry(registry);
+		filter.init();
+		MockFilterChain failing = new MockFilterChain() {
+			@Override
+			public void doFilter(javax.servlet.ServletRequest request, javax.servlet.ServletResponse response) {
+				throw new IllegalStateException("handler failed");
+			}
+		};
+
+		assertThrows(IllegalStateException.class, () ->
+			filter.doFilter(new MockHttpServletRequest("POST", "/ReserveFunds"), new MockHttpServletResponse(), failing));
+
+		assertEquals(0.0, registry.get("reservefunds.concurrency.inflight").gauge().value());
+		assertTrue(registry.get("reservefunds.concurrency.limit").gauge().value() < 4.0);
+	}
+
+	@Test
+	void test_doFilter_otherPathsNotLimited() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/ReserveFunds/batch"), new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertEquals(0.0, count("accepted"));
+	}
+}
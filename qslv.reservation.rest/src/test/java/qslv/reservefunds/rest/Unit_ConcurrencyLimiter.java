@@ -0,0 +1,82 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class Unit_ConcurrencyLimiter {
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private void saturate(ConcurrencyLimiter limiter, long rtt, int rounds) {
+		for (int round = 0; round < rounds; round++) {
+			int taken = 0;
+			while (limiter.tryAcquire()) {
+				taken++;
+			}
+			for (int i = 0; i < taken; i++) {
+				limiter.release(rtt);
+			}
+		}
+	}
+
+	@Test
+	void test_tryAcquire_boundedByLimit() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10, 0.2, 1.5);
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+
+		limiter.release(FAST);
+		assertEquals(1, limiter.getInFlight());
+		assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	void test_release_growsWhileLatencySteady() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 200, 0.2, 1.5);
+
+		saturate(limiter, FAST, 20);
+
+		assertTrue(limiter.getLimit() > 10);
+	}
+
+	@Test
+	void test_release_shrinksWhenLatencyRises() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, 4, 200, 0.2, 1.5);
+		saturate(limiter, FAST, 1);
+		int before = limiter.getLimit();
+
+		saturate(limiter, SLOW, 5);
+
+		assertTrue(limiter.getLimit() < before);
+		assertTrue(limiter.getLimit() >= 4);
+	}
+
+	@Test
+	void test_release_idleDoesNotGrow() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 1.5);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(FAST);
+		}
+
+		assertEquals(20, limiter.getLimit());
+	}
+
+	@Test
+	void test_drop_backsOff() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.2, 1.5);
+
+		assertTrue(limiter.tryAcquire());
+		limiter.drop();
+
+		assertEquals(18, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+}
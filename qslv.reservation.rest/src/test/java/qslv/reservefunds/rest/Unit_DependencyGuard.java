@@ -0,0 +1,100 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import reactor.core.publisher.Mono;
+
+class Unit_DependencyGuard {
+
+	private DependencyGuard guard(int maxConcurrentCalls) {
+		CircuitBreaker circuitBreaker = CircuitBreaker.of("test", CircuitBreakerConfig.custom()
+				.slidingWindowSize(4)
+				.minimumNumberOfCalls(4)
+				.failureRateThreshold(50f)
+				.waitDurationInOpenState(Duration.ofMinutes(1))
+				.recordExceptions(DataAccessException.class)
+				.build());
+		Bulkhead bulkhead = Bulkhead.of("test", BulkheadConfig.custom()
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.maxWaitDuration(Duration.ZERO)
+				.build());
+		return new DependencyGuard(circuitBreaker, bulkhead);
+	}
+
+	@Test
+	void test_call_opensOnRemoteFailures() {
+		DependencyGuard guard = guard(10);
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(QueryTimeoutException.class, () -> guard.call(() -> {
+				throw new QueryTimeoutException("timeout");
+			}));
+		}
+
+		assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState());
+		assertThrows(CallNotPermittedException.class, () -> guard.call(() -> "never"));
+	}
+
+	@Test
+	void test_call_businessErrorsDoNotOpen() {
+		DependencyGuard guard = guard(10);
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(ResponseStatusException.class, () -> guard.call(() -> {
+				throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 rows");
+			}));
+		}
+
+		assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState());
+		assertEquals("ok", guard.call(() -> "ok"));
+	}
+
+	@Test
+	void test_callAsync_bulkheadFull() throws Exception {
+		DependencyGuard guard = guard(1);
+		CompletableFuture<String> inFlight = new CompletableFuture<String>();
+
+		CompletableFuture<String> first = guard.callAsync(() -> inFlight);
+		CompletableFuture<String> second = guard.callAsync(() -> CompletableFuture.completedFuture("second"));
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> second.get());
+		assertTrue(ex.getCause() instanceof BulkheadFullException);
+
+		inFlight.complete("first");
+		assertEquals("first", first.get());
+		assertEquals("third", guard.callAsync(() -> CompletableFuture.completedFuture("third")).get());
+	}
+
+	@Test
+	void test_mono_opensOnRemoteFailures() {
+		DependencyGuard guard = guard(10);
+		Mono<String> failing = guard.mono(Mono.error(new QueryTimeoutException("timeout")));
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(QueryTimeoutException.class, () -> failing.block());
+		}
+
+		assertThrows(CallNotPermittedException.class, () -> guard.mono(Mono.just("never")).block());
+	}
+
+	@Test
+	void test_passThrough() {
+		assertEquals("ok", DependencyGuard.passThrough().call(() -> "ok"));
+	}
+}
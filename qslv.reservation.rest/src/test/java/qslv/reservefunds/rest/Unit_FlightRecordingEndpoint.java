@@ -0,0 +1,81 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import jdk.jfr.Configuration;
+
+class Unit_FlightRecordingEndpoint {
+	ConfigProperties config = new ConfigProperties();
+	FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint();
+	FlightRecordingConfig flightRecordingConfig = new FlightRecordingConfig();
+
+	@BeforeEach
+	public void init() {
+		config.setFlightRecordingMaxSeconds(5);
+		config.setFlightRecordingSettings("default");
+		endpoint.setConfig(config);
+		flightRecordingConfig.setConfig(config);
+	}
+
+	@Test
+	void test_seconds_outOfRange() throws Exception {
+		assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.flightRecording(0).getStatus());
+		assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.flightRecording(6).getStatus());
+	}
+
+	@Test
+	void test_record_returnsJfr() throws Exception {
+		ReserveFundsEvent.start().end(ReserveFundsEvent.RESERVE_FUNDS, "1234", ReserveFundsEvent.SUCCESS, 0);
+
+		WebEndpointResponse<Resource> response = endpoint.flightRecording(1);
+
+		assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+		byte[] body;
+		try (InputStream in = response.getBody().getInputStream()) {
+			body = StreamUtils.copyToByteArray(in);
+		}
+		assertTrue(body.length > 4);
+		assertEquals("FLR", new String(body, 0, 3, "US-ASCII"));
+		assertFalse(response.getBody().exists());
+	}
+
+	@Test
+	void test_settings_noEnvironmentOrSystemProperties() throws Exception {
+		Map<String, String> settings = FlightRecordingEndpoint.settings(Configuration.getConfiguration("profile"));
+
+		assertEquals("false", settings.get("jdk.InitialEnvironmentVariable#enabled"));
+		assertEquals("false", settings.get("jdk.InitialSystemProperty#enabled"));
+	}
+
+	@Test
+	void test_accountHash() {
+		config.setFlightRecordingAccountHashKey("deployment-secret");
+		flightRecordingConfig.init();
+
+		assertNull(ReserveFundsEvent.accountHash(null));
+		assertEquals(16, ReserveFundsEvent.accountHash("1234").length());
+		assertEquals(ReserveFundsEvent.accountHash("1234"), ReserveFundsEvent.accountHash("1234"));
+		assertNotEquals(ReserveFundsEvent.accountHash("1234"), ReserveFundsEvent.accountHash("1235"));
+		assertFalse(ReserveFundsEvent.accountHash("1234").contains("1234"));
+
+		String first = ReserveFundsEvent.accountHash("1234");
+		ReserveFundsEvent.setAccountHashKey("other-secret");
+		assertNotEquals(first, ReserveFundsEvent.accountHash("1234"));
+	}
+
+	@Test
+	void test_accountHash_noKey() {
+		flightRecordingConfig.init();
+
+		assertNull(ReserveFundsEvent.accountHash("1234"));
+	}
+}
@@ -17,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.QueryTimeoutException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -171,4 +172,44 @@ public class Unit_JdbcDaoTest {
 		// ---- Verify ----
 		verify(jdbcTemplate).query(anyString(), ArgumentMatchers.<RowMapper<Account>>any(), anyString());
 	}
+
+	@Test
+	public void test_getAccountAndOverdraft_success() {
+		
+		String accountNumber = "DDDD3456HKWER7890";
+
+		// ---- Setup ----
+		CombinedLookup setupLookup = new CombinedLookup();
+		setupLookup.setAccount(new Account());
+		setupLookup.getAccount().setAccountNumber(accountNumber);
+
+		// ---- Prepare ----
+		doReturn(setupLookup)
+			.when(jdbcTemplate)
+			.query(anyString(), ArgumentMatchers.<ResultSetExtractor<CombinedLookup>>any(), anyString());
+		
+		// ---- Execute ----
+		CombinedLookup lookup = jdbcDao.getAccountAndOverdraft(accountNumber);
+		
+		// ---- Verify ----
+		verify(jdbcTemplate).query(anyString(), ArgumentMatchers.<ResultSetExtractor<CombinedLookup>>any(), anyString());
+		assertSame(setupLookup, lookup);
+	}
+
+	@Test
+	public void test_getDebitCardAccountAndOverdraft_noRows() {
+		
+		String debitCardNumber = "2734827349";
+
+		// ---- Prepare ----
+		doReturn(null)
+			.when(jdbcTemplate)
+			.query(anyString(), ArgumentMatchers.<ResultSetExtractor<CombinedLookup>>any(), anyString());
+		
+		// ---- Execute ----
+		assertThrows(ResponseStatusException.class, ()-> { jdbcDao.getDebitCardAccountAndOverdraft(debitCardNumber); } );
+		
+		// ---- Verify ----
+		verify(jdbcTemplate).query(anyString(), ArgumentMatchers.<ResultSetExtractor<CombinedLookup>>any(), anyString());
+	}
 }
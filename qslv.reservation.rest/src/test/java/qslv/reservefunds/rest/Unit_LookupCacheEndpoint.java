@@ -0,0 +1,40 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+@ExtendWith(MockitoExtension.class)
+class Unit_LookupCacheEndpoint {
+	@Mock
+	AccountLookup accountLookup;
+
+	LookupCacheEndpoint endpoint = new LookupCacheEndpoint();
+
+	@BeforeEach
+	public void init() {
+		endpoint.setAccountLookup(accountLookup);
+	}
+
+	@Test
+	void test_evict() {
+		assertEquals(WebEndpointResponse.STATUS_NO_CONTENT, endpoint.evict("debitcard", "2734827349").getStatus());
+		assertEquals(WebEndpointResponse.STATUS_NO_CONTENT, endpoint.evict("account", "1234HHHH1234").getStatus());
+
+		verify(accountLookup).evictDebitCard("2734827349");
+		verify(accountLookup).evictAccount("1234HHHH1234");
+	}
+
+	@Test
+	void test_evict_unknownType() {
+		assertEquals(WebEndpointResponse.STATUS_BAD_REQUEST, endpoint.evict("plan", "1234HHHH1234").getStatus());
+
+		verifyNoInteractions(accountLookup);
+	}
+}
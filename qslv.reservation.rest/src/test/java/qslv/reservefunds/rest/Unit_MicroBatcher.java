@@ -0,0 +1,103 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class Unit_MicroBatcher {
+	ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+	ExecutorService callers = Executors.newFixedThreadPool(8);
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	CopyOnWriteArrayList<Collection<String>> queries = new CopyOnWriteArrayList<Collection<String>>();
+
+	@AfterEach
+	public void teardown() {
+		scheduler.shutdownNow();
+		callers.shutdownNow();
+	}
+
+	private Map<String, String> load(Collection<String> keys) {
+		queries.add(new ArrayList<String>(keys));
+		HashMap<String, String> found = new HashMap<String, String>();
+		for (String key : keys) {
+			if (false == key.startsWith("missing")) {
+				found.put(key, "value-" + key);
+			}
+		}
+		return found;
+	}
+
+	private List<CompletableFuture<String>> getAll(MicroBatcher<String, String> batcher, String... keys) {
+		List<CompletableFuture<String>> futures = new ArrayList<CompletableFuture<String>>();
+		for (String key : keys) {
+			futures.add(CompletableFuture.supplyAsync(() -> batcher.get(key), callers));
+		}
+		return futures;
+	}
+
+	@Test
+	void test_get_windowCombinesCallers() throws Exception {
+		MicroBatcher<String, String> batcher = new MicroBatcher<String, String>("test", this::load, 100,
+				TimeUnit.MILLISECONDS.toMicros(200), scheduler, registry);
+
+		List<CompletableFuture<String>> futures = getAll(batcher, "a", "b", "a", "missing");
+
+		assertEquals("value-a", futures.get(0).get(5, TimeUnit.SECONDS));
+		assertEquals("value-b", futures.get(1).get(5, TimeUnit.SECONDS));
+		assertEquals("value-a", futures.get(2).get(5, TimeUnit.SECONDS));
+		assertNull(futures.get(3).get(5, TimeUnit.SECONDS));
+		assertEquals(1, queries.size());
+		assertEquals(3, queries.get(0).size());
+		assertEquals(3.0, registry.get("reservefunds.lookup.batch.size").tag("query", "test").summary().totalAmount());
+	}
+
+	@Test
+	void test_get_maxBatchSizeFlushes() throws Exception {
+		MicroBatcher<String, String> batcher = new MicroBatcher<String, String>("test", this::load, 2,
+				TimeUnit.SECONDS.toMicros(30), scheduler, registry);
+
+		List<CompletableFuture<String>> futures = getAll(batcher, "a", "b");
+
+		assertEquals("value-a", futures.get(0).get(5, TimeUnit.SECONDS));
+		assertEquals("value-b", futures.get(1).get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void test_get_failurePropagates() {
+		MicroBatcher<String, String> batcher = new MicroBatcher<String, String>("test", keys -> {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "db down");
+		}, 100, 1000, scheduler, registry);
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> batcher.get("a"));
+		assertEquals("db down", ex.getReason());
+	}
+
+	@Test
+	void test_get_errorReleasesCallers() throws Exception {
+		MicroBatcher<String, String> batcher = new MicroBatcher<String, String>("test", keys -> {
+			throw new AssertionError("loader failed");
+		}, 100, 1000, scheduler, registry);
+
+		ExecutionException ex = assertThrows(ExecutionException.class,
+				() -> CompletableFuture.supplyAsync(() -> batcher.get("a"), callers).get(5, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof AssertionError);
+	}
+}
@@ -0,0 +1,74 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import qslv.data.Account;
+import qslv.data.OverdraftInstruction;
+
+class Unit_OverdraftPlan {
+	LocalDateTime now = LocalDateTime.of(2020, 3, 15, 12, 0);
+
+	private OverdraftInstruction instruction(String account, String accountStatus, String status,
+			LocalDateTime start, LocalDateTime end) {
+		OverdraftInstruction od = new OverdraftInstruction();
+		od.setOverdraftAccount(new Account());
+		od.getOverdraftAccount().setAccountNumber(account);
+		od.getOverdraftAccount().setAccountLifeCycleStatus(accountStatus);
+		od.setInstructionLifecycleStatus(status);
+		od.setEffectiveStart(start);
+		od.setEffectiveEnd(end);
+		return od;
+	}
+
+	private long epochMillis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	@Test
+	void test_compile_orderAndEligibility() {
+		List<OverdraftInstruction> instructions = new ArrayList<>();
+		instructions.add(instruction("A1", "EF", "EF", now.minusYears(1), null));
+		instructions.add(instruction("A2", "CL", "EF", now.minusYears(1), null));
+		instructions.add(instruction("A3", "EF", "CL", now.minusYears(1), null));
+		instructions.add(instruction("A4", "EF", "EF", now.minusYears(1), now.minusDays(1)));
+		instructions.add(instruction("A5", "EF", "EF", now.minusYears(1), now.plusYears(1)));
+
+		OverdraftPlan plan = OverdraftPlan.compile(instructions, now);
+
+		assertArrayEquals(new String[] { "A1", "A5" }, plan.getOverdraftAccounts());
+		assertEquals(epochMillis(now.plusYears(1)), plan.getValidUntil());
+		assertTrue(plan.contains("A5"));
+		assertFalse(plan.contains("A2"));
+		assertTrue(plan.references("A2"));
+		assertFalse(plan.references("A9"));
+	}
+
+	@Test
+	void test_compile_validUntilNextStart() {
+		List<OverdraftInstruction> instructions = new ArrayList<>();
+		instructions.add(instruction("A1", "EF", "EF", now.plusDays(3), null));
+		instructions.add(instruction("A2", "EF", "EF", now.minusDays(3), now.plusDays(10)));
+
+		OverdraftPlan plan = OverdraftPlan.compile(instructions, now);
+
+		assertArrayEquals(new String[] { "A2" }, plan.getOverdraftAccounts());
+		assertEquals(epochMillis(now.plusDays(3)), plan.getValidUntil());
+	}
+
+	@Test
+	void test_compile_noBoundary() {
+		List<OverdraftInstruction> instructions = new ArrayList<>();
+		instructions.add(instruction("A1", "EF", "EF", now.minusDays(3), null));
+
+		OverdraftPlan plan = OverdraftPlan.compile(instructions, now);
+
+		assertEquals(Long.MAX_VALUE, plan.getValidUntil());
+	}
+}
@@ -0,0 +1,182 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.data.DebitCard;
+import qslv.data.OverdraftInstruction;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class Unit_ReactiveReserveFundsService {
+	@Mock
+	R2dbcDao r2dbcDao;
+	@Mock
+	ReactiveTransactionDao trDao;
+
+	ReactiveReserveFundsService service = new ReactiveReserveFundsService();
+	HashMap<String, String> headers = new HashMap<String, String>();
+
+	@BeforeEach
+	public void setup() {
+		service.setR2dbcDao(r2dbcDao);
+		service.setTrDao(trDao);
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+	}
+
+	private ReserveFundsRequest request() {
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(-27384);
+		request.setTransactionMetaDataJSON("{}");
+		request.setProtectAgainstOverdraft(true);
+		return request;
+	}
+
+	private Account account(String accountNumber) {
+		Account account = new Account();
+		account.setAccountNumber(accountNumber);
+		account.setAccountLifeCycleStatus("EF");
+		return account;
+	}
+
+	private OverdraftInstruction instruction(String accountNumber) {
+		OverdraftInstruction od = new OverdraftInstruction();
+		od.setOverdraftAccount(account(accountNumber));
+		od.setInstructionLifecycleStatus("EF");
+		od.setEffectiveStart(LocalDateTime.now().minusYears(1));
+		return od;
+	}
+
+	private ReservationResponse reservation(int status, String accountNumber) {
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionUuid(UUID.randomUUID());
+		transaction.setAccountNumber(accountNumber);
+		return new ReservationResponse(status, transaction);
+	}
+
+	private ReservationRequest forAccount(String accountNumber) {
+		return argThat(treq -> treq != null && accountNumber.equals(treq.getAccountNumber()));
+	}
+
+	@Test
+	void test_reserveFunds_success() {
+		when(r2dbcDao.getAccount("1234HHHH1234")).thenReturn(Mono.just(account("1234HHHH1234")));
+		when(trDao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(Mono.just(reservation(ReservationResponse.SUCCESS, "1234HHHH1234")));
+
+		ReserveFundsResponse response = service.reserveFunds(headers, request()).block();
+
+		assertEquals(ReserveFundsResponse.SUCCESS, response.getStatus());
+		assertEquals(1, response.getTransactions().size());
+		verify(r2dbcDao, never()).getOverdraftInstructions(any());
+	}
+
+	@Test
+	void test_reserveFunds_overdraftStopsAtFirstSuccess() {
+		List<OverdraftInstruction> instructions = new LinkedList<OverdraftInstruction>();
+		instructions.add(instruction("OD1"));
+		instructions.add(instruction("OD2"));
+		instructions.add(instruction("OD3"));
+		when(r2dbcDao.getAccount("1234HHHH1234")).thenReturn(Mono.just(account("1234HHHH1234")));
+		when(r2dbcDao.getOverdraftInstructions("1234HHHH1234")).thenReturn(Mono.just(instructions));
+		when(trDao.recordReservation(any(), forAccount("1234HHHH1234")))
+			.thenReturn(Mono.just(reservation(ReservationResponse.INSUFFICIENT_FUNDS, "1234HHHH1234")));
+		when(trDao.recordReservation(any(), forAccount("OD1")))
+			.thenReturn(Mono.just(reservation(ReservationResponse.INSUFFICIENT_FUNDS, "OD1")));
+		when(trDao.recordReservation(any(), forAccount("OD2")))
+			.thenReturn(Mono.just(reservation(ReservationResponse.SUCCESS, "OD2")));
+
+		ReserveFundsResponse response = service.reserveFunds(headers, request()).block();
+
+		assertEquals(ReserveFundsResponse.SUCCESS_OVERDRAFT, response.getStatus());
+		assertEquals(3, response.getTransactions().size());
+		assertEquals("OD2", response.getTransactions().get(2).getAccountNumber());
+		verify(trDao, never()).recordReservation(any(), forAccount("OD3"));
+	}
+
+	@Test
+	void test_reserveFunds_invalidDebitCard() {
+		ReserveFundsRequest request = request();
+		request.setAccountNumber(null);
+		request.setDebitCardNumber("2734827349");
+		DebitCard debitCard = new DebitCard();
+		debitCard.setDebitCardNumber("2734827349");
+		debitCard.setDebitCardLifeCycleStatus("CL");
+		debitCard.setAccount(account("1234HHHH1234"));
+		when(r2dbcDao.getDebitCardAndAccount("2734827349")).thenReturn(Mono.just(debitCard));
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> service.reserveFunds(headers, request).block());
+
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ex.getStatus());
+		verifyNoInteractions(trDao);
+	}
+
+	@Test
+	void test_reserveFunds_replayedAndConflict() {
+		ConfigProperties config = new ConfigProperties();
+		config.setReplayCacheEnabled(true);
+		ReplayCache replayCache = new ReplayCache();
+		replayCache.setConfig(config);
+		replayCache.setMeterRegistry(new SimpleMeterRegistry());
+		replayCache.init();
+		service.setReplayCache(replayCache);
+
+		DebitCard debitCard = new DebitCard();
+		debitCard.setDebitCardNumber("2734827349");
+		debitCard.setDebitCardLifeCycleStatus("EF");
+		debitCard.setAccount(account("1234HHHH1234"));
+		when(r2dbcDao.getDebitCardAndAccount("2734827349")).thenReturn(Mono.just(debitCard));
+		when(trDao.recordReservation(any(), forAccount("1234HHHH1234")))
+			.thenReturn(Mono.just(reservation(ReservationResponse.SUCCESS, "1234HHHH1234")));
+
+		UUID requestUUID = UUID.randomUUID();
+		ReserveFundsResponse first = service.reserveFunds(headers, cardRequest(requestUUID, -27384)).block();
+		ReserveFundsResponse replayed = service.reserveFunds(headers, cardRequest(requestUUID, -27384)).block();
+
+		assertSame(first, replayed);
+		verify(trDao, times(1)).recordReservation(any(), any(ReservationRequest.class));
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> service.reserveFunds(headers, cardRequest(requestUUID, -99999)).block());
+		assertEquals(HttpStatus.CONFLICT, ex.getStatus());
+		verify(trDao, times(1)).recordReservation(any(), any(ReservationRequest.class));
+	}
+
+	private ReserveFundsRequest cardRequest(UUID requestUUID, int amount) {
+		ReserveFundsRequest request = request();
+		request.setRequestUUID(requestUUID);
+		request.setAccountNumber(null);
+		request.setDebitCardNumber("2734827349");
+		request.setTransactionAmount(amount);
+		return request;
+	}
+}
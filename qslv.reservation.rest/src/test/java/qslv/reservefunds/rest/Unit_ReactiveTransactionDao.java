@@ -0,0 +1,31 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+class Unit_ReactiveTransactionDao {
+
+	private static WebClientResponseException response(int status, String reason) {
+		return WebClientResponseException.create(status, reason, new HttpHeaders(), new byte[0], StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void test_isRetryable() {
+		assertTrue(ReactiveTransactionDao.isRetryable(response(503, "Service Unavailable")));
+		assertTrue(ReactiveTransactionDao.isRetryable(new IOException("connection reset")));
+		assertTrue(ReactiveTransactionDao.isRetryable(new TimeoutException()));
+		assertTrue(ReactiveTransactionDao.isRetryable(new ResourceAccessException("refused")));
+
+		assertFalse(ReactiveTransactionDao.isRetryable(response(400, "Bad Request")));
+		assertFalse(ReactiveTransactionDao.isRetryable(response(422, "Unprocessable Entity")));
+		assertFalse(ReactiveTransactionDao.isRetryable(new IllegalStateException("unreadable payload")));
+	}
+}
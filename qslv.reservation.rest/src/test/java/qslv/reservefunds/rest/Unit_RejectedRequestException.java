@@ -0,0 +1,85 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.reservefunds.request.ReserveFundsRequest;
+
+class Unit_RejectedRequestException {
+
+	@Test
+	void test_noStackTrace() {
+		RejectedRequestException ex = new RejectedRequestException(HttpStatus.BAD_REQUEST, "garbage");
+
+		assertEquals(0, ex.getStackTrace().length);
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+		assertEquals("garbage", ex.getReason());
+	}
+
+	@Test
+	void test_body() {
+		RejectedRequestException ex = new RejectedRequestException(HttpStatus.UNPROCESSABLE_ENTITY, "say \"no\"");
+
+		String body = new String(ex.getBody("/ReserveFunds"), StandardCharsets.UTF_8);
+		assertTrue(body.matches("\\{\"timestamp\":\"\\d{4}-\\d\\d-\\d\\dT\\d\\d:\\d\\d:\\d\\d\\.\\d{3}\\+0000\",.*"), body);
+		assertTrue(body.endsWith(",\"status\":422,\"error\":\"Unprocessable Entity\",\"message\":\"say \\\"no\\\"\",\"path\":\"/ReserveFunds\"}"), body);
+	}
+
+	@Test
+	void test_validator_freshInstance() {
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.AIT_ID, "12345");
+
+		RejectedRequestException ex = assertThrows(RejectedRequestException.class,
+				() -> ReserveFundsValidator.validateHeaders(headers));
+		assertEquals("Missing header variable " + TraceableRequest.BUSINESS_TAXONOMY_ID, ex.getReason());
+		assertEquals(0, ex.getStackTrace().length);
+
+		ex.addSuppressed(new IllegalStateException("handler failure"));
+		RejectedRequestException again = assertThrows(RejectedRequestException.class,
+				() -> ReserveFundsValidator.validateHeaders(headers));
+		assertNotSame(ex, again);
+		assertEquals(0, again.getSuppressed().length);
+	}
+
+	@Test
+	void test_standing() {
+		Account account = new Account();
+		account.setAccountNumber("1234HHHH1234");
+		account.setAccountLifeCycleStatus("CL");
+
+		RejectedRequestException ex = assertThrows(RejectedRequestException.class,
+				() -> ReserveFundsService.validateAccount(account));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ex.getStatus());
+	}
+
+	@Test
+	void test_controller_rendersBody() {
+		ReserveFundsController controller = new ReserveFundsController();
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+		headers.put(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+
+		RejectedRequestException ex = assertThrows(RejectedRequestException.class,
+				() -> controller.postReserveFunds(headers, request));
+		ResponseEntity<byte[]> response = controller.rejected(ex, new MockHttpServletRequest("POST", "/ReserveFunds"));
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+		String body = new String(response.getBody(), StandardCharsets.UTF_8);
+		assertTrue(body.endsWith(",\"status\":400,\"error\":\"Bad Request\",\"message\":\"Missing request_uuid\",\"path\":\"/ReserveFunds\"}"), body);
+	}
+}
@@ -0,0 +1,68 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import qslv.common.TimedResponse;
+import qslv.transaction.response.ReservationResponse;
+
+class Unit_RemoteCallMetrics {
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	ConfigProperties config = new ConfigProperties();
+	RemoteCallMetrics metrics = new RemoteCallMetrics();
+
+	@BeforeEach
+	public void init() {
+		metrics.setMeterRegistry(registry);
+		metrics.setConfig(config);
+		metrics.init();
+	}
+
+	private TimedResponse<ReservationResponse> timed(long elapsed) {
+		TimedResponse<ReservationResponse> response = new TimedResponse<ReservationResponse>();
+		response.setServiceTimeElapsed(elapsed);
+		return response;
+	}
+
+	@Test
+	void test_attempt_decomposed() {
+		metrics.attempt(1, TimeUnit.MILLISECONDS.toNanos(12), timed(TimeUnit.MILLISECONDS.toNanos(9)));
+
+		assertEquals(12.0, registry.get("reservefunds.remote.roundtrip").tag("outcome", "success").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(9.0, registry.get("reservefunds.remote.service").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(3.0, registry.get("reservefunds.remote.overhead").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+	}
+
+	@Test
+	void test_attempt_remoteUnit() {
+		config.setRemoteElapsedTimeUnit(TimeUnit.MICROSECONDS);
+		metrics.attempt(1, TimeUnit.MILLISECONDS.toNanos(5), timed(4000L));
+
+		assertEquals(4.0, registry.get("reservefunds.remote.service").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(1.0, registry.get("reservefunds.remote.overhead").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+	}
+
+	@Test
+	void test_attempt_noServiceTime() {
+		metrics.attempt(1, TimeUnit.MILLISECONDS.toNanos(5), timed(0L));
+
+		assertEquals(1L, registry.get("reservefunds.remote.roundtrip").tag("outcome", "success").timer().count());
+		assertEquals(0L, registry.get("reservefunds.remote.service").timer().count());
+		assertEquals(0L, registry.get("reservefunds.remote.overhead").timer().count());
+	}
+
+	@Test
+	void test_failedAttempt_and_retryCost() {
+		metrics.failedAttempt(1, TimeUnit.MILLISECONDS.toNanos(50));
+		metrics.retryCost(TimeUnit.MILLISECONDS.toNanos(150));
+
+		assertEquals(1L, registry.get("reservefunds.remote.roundtrip").tag("outcome", "error").timer().count());
+		assertEquals(0L, registry.get("reservefunds.remote.roundtrip").tag("outcome", "success").timer().count());
+		assertEquals(150.0, registry.get("reservefunds.remote.retry.cost").timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+	}
+}
@@ -0,0 +1,138 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+class Unit_ReplayCache {
+	ReplayCache replayCache = new ReplayCache();
+	ConfigProperties config = new ConfigProperties();
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	AtomicInteger runs = new AtomicInteger();
+	static final String FINGERPRINT = "1234HHHH1234|null|27384|false|123";
+
+	@BeforeEach
+	public void init() {
+		config.setReplayCacheEnabled(true);
+		replayCache.setConfig(config);
+		replayCache.setMeterRegistry(registry);
+		replayCache.init();
+	}
+
+	private CompletableFuture<ReserveFundsResponse> reserve() {
+		runs.incrementAndGet();
+		ReserveFundsResponse response = new ReserveFundsResponse();
+		response.setStatus(ReserveFundsResponse.SUCCESS);
+		return CompletableFuture.completedFuture(response);
+	}
+
+	private double count(String result) {
+		return registry.get("reservefunds.replay").tag("result", result).counter().count();
+	}
+
+	@Test
+	void test_execute_replaysCompleted() {
+		UUID requestUUID = UUID.randomUUID();
+
+		ReserveFundsResponse first = replayCache.execute(requestUUID, FINGERPRINT, this::reserve).join();
+		ReserveFundsResponse second = replayCache.execute(requestUUID, FINGERPRINT, this::reserve).join();
+
+		assertSame(first, second);
+		assertEquals(1, runs.get());
+		assertEquals(1.0, count("miss"));
+		assertEquals(1.0, count("hit"));
+	}
+
+	@Test
+	void test_execute_duplicateWaitsOnInFlight() {
+		UUID requestUUID = UUID.randomUUID();
+		CompletableFuture<ReserveFundsResponse> original = new CompletableFuture<ReserveFundsResponse>();
+
+		CompletableFuture<ReserveFundsResponse> first = replayCache.execute(requestUUID, FINGERPRINT, () -> original);
+		CompletableFuture<ReserveFundsResponse> duplicate = replayCache.execute(requestUUID, FINGERPRINT, this::reserve);
+		assertFalse(duplicate.isDone());
+
+		ReserveFundsResponse response = new ReserveFundsResponse();
+		original.complete(response);
+
+		assertSame(response, first.join());
+		assertSame(response, duplicate.join());
+		assertEquals(0, runs.get());
+		assertEquals(1.0, count("inflight"));
+	}
+
+	@Test
+	void test_execute_failureNotKept() {
+		UUID requestUUID = UUID.randomUUID();
+
+		CompletionException ex = assertThrows(CompletionException.class, () -> replayCache.execute(requestUUID, FINGERPRINT, () -> {
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "db down");
+		}).join());
+		assertTrue(ex.getCause() instanceof ResponseStatusException);
+
+		replayCache.execute(requestUUID, FINGERPRINT, this::reserve).join();
+		assertEquals(1, runs.get());
+		assertEquals(2.0, count("miss"));
+	}
+
+	@Test
+	void test_disabled_passThrough() {
+		config.setReplayCacheEnabled(false);
+		ReplayCache passThrough = new ReplayCache();
+		passThrough.setConfig(config);
+		passThrough.init();
+		UUID requestUUID = UUID.randomUUID();
+
+		passThrough.execute(requestUUID, FINGERPRINT, this::reserve).join();
+		passThrough.execute(requestUUID, FINGERPRINT, this::reserve).join();
+
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void test_execute_differentRequestConflicts() {
+		UUID requestUUID = UUID.randomUUID();
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(requestUUID);
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		String original = ReplayCache.fingerprint(request);
+		request.setTransactionAmount(99999);
+		String changed = ReplayCache.fingerprint(request);
+
+		replayCache.execute(requestUUID, original, this::reserve).join();
+		CompletionException ex = assertThrows(CompletionException.class,
+				() -> replayCache.execute(requestUUID, changed, this::reserve).join());
+
+		assertEquals(HttpStatus.CONFLICT, ((ResponseStatusException) ex.getCause()).getStatus());
+		assertEquals(1, runs.get());
+		assertEquals(1.0, count("conflict"));
+	}
+
+	@Test
+	void test_fingerprint_metadataHashCollision() {
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(27384);
+		// "Aa" and "BB" have the same String.hashCode.
+		request.setTransactionMetaDataJSON("{\"m\":\"Aa\"}");
+		String first = ReplayCache.fingerprint(request);
+		request.setTransactionMetaDataJSON("{\"m\":\"BB\"}");
+
+		assertEquals("{\"m\":\"Aa\"}".hashCode(), "{\"m\":\"BB\"}".hashCode());
+		assertNotEquals(first, ReplayCache.fingerprint(request));
+	}
+}
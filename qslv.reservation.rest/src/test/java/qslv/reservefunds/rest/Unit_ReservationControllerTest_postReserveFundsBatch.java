@@ -0,0 +1,134 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import qslv.common.TimedResponse;
+import qslv.common.TraceableRequest;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+@ExtendWith(MockitoExtension.class)
+class Unit_ReservationControllerTest_postReserveFundsBatch {
+	@Mock
+	public ReserveFundsService service;
+	@Mock
+	public ConfigProperties config;
+
+	ReserveFundsController controller = new ReserveFundsController();
+
+	@BeforeEach
+	public void setup() {
+		controller.setService(service);
+		controller.setConfig(config);
+	}
+
+	private HashMap<String, String> headers() {
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+		headers.put(TraceableRequest.ACCEPT_VERSION, ReserveFundsRequest.version1_0);
+		return headers;
+	}
+
+	private ReserveFundsRequest request(String accountNumber) {
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber(accountNumber);
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		return request;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testPostReserveFundsBatch_invalidItemKeepsPosition() {
+		when(config.getBatchMaxSize()).thenReturn(10);
+
+		ReserveFundsRequest first = request("1234HHHH1234");
+		ReserveFundsRequest invalid = request("5678HHHH5678");
+		invalid.setTransactionAmount(0);
+		ReserveFundsRequest last = request("9012HHHH9012");
+
+		ReserveFundsResponse firstResponse = new ReserveFundsResponse();
+		firstResponse.setStatus(ReserveFundsResponse.SUCCESS);
+		ReserveFundsResponse lastResponse = new ReserveFundsResponse();
+		lastResponse.setStatus(ReserveFundsResponse.INSUFFICIENT_FUNDS);
+		when(service.reserveFundsBatch(any(), anyList())).thenReturn(Arrays.asList(
+				new ReserveFundsBatchResult(200, null, firstResponse),
+				new ReserveFundsBatchResult(200, null, lastResponse)));
+
+		TimedResponse<List<ReserveFundsBatchResult>> response = controller.postReserveFundsBatch(headers(),
+				Arrays.asList(first, invalid, last));
+
+		ArgumentCaptor<List<ReserveFundsRequest>> captor = ArgumentCaptor.forClass(List.class);
+		verify(service).reserveFundsBatch(any(), captor.capture());
+		assertEquals(Arrays.asList(first, last), captor.getValue());
+
+		List<ReserveFundsBatchResult> results = response.getPayload();
+		assertEquals(3, results.size());
+		assertSame(firstResponse, results.get(0).getResponse());
+		assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getStatus());
+		assertEquals("Transaction Amount must not be zero(0).", results.get(1).getMessage());
+		assertSame(lastResponse, results.get(2).getResponse());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testPostReserveFundsBatch_duplicateRequestUUID() {
+		when(config.getBatchMaxSize()).thenReturn(10);
+
+		ReserveFundsRequest first = request("1234HHHH1234");
+		ReserveFundsRequest repeat = request("5678HHHH5678");
+		repeat.setRequestUUID(first.getRequestUUID());
+
+		ReserveFundsResponse firstResponse = new ReserveFundsResponse();
+		firstResponse.setStatus(ReserveFundsResponse.SUCCESS);
+		when(service.reserveFundsBatch(any(), anyList())).thenReturn(Arrays.asList(
+				new ReserveFundsBatchResult(200, null, firstResponse)));
+
+		TimedResponse<List<ReserveFundsBatchResult>> response = controller.postReserveFundsBatch(headers(),
+				Arrays.asList(first, repeat));
+
+		ArgumentCaptor<List<ReserveFundsRequest>> captor = ArgumentCaptor.forClass(List.class);
+		verify(service).reserveFundsBatch(any(), captor.capture());
+		assertEquals(Arrays.asList(first), captor.getValue());
+
+		List<ReserveFundsBatchResult> results = response.getPayload();
+		assertSame(firstResponse, results.get(0).getResponse());
+		assertEquals(HttpStatus.CONFLICT.value(), results.get(1).getStatus());
+	}
+
+	@Test
+	void testPostReserveFundsBatch_tooLarge() {
+		when(config.getBatchMaxSize()).thenReturn(1);
+
+		ArrayList<ReserveFundsRequest> requests = new ArrayList<ReserveFundsRequest>();
+		requests.add(request("1234HHHH1234"));
+		requests.add(request("5678HHHH5678"));
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> {
+			controller.postReserveFundsBatch(headers(), requests);
+		});
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+		verifyNoInteractions(service);
+	}
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.*;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.UUID;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import qslv.common.TraceableRequest;
 import qslv.data.Account;
 import qslv.data.OverdraftInstruction;
@@ -444,4 +446,175 @@ class Unit_ReservationServiceTest_overdraft {
 		assertTrue (rr.getTransactionMetaDataJson() == a3response.getResource().getTransactionMetaDataJson());
 		assertTrue (rr.getTransactionTypeCode() == a3response.getResource().getTransactionTypeCode());
 	}
+
+	@Test
+	void testPostReserveAccountFunds_OD_combinedLookup() {
+		ConfigProperties config = new ConfigProperties();
+		config.setCombinedOverdraftLookup(true);
+		service.setConfig(config);
+
+		// -----------------
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+
+		// ------------------
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		request.setProtectAgainstOverdraft(true);
+
+		// -------------------
+		CombinedLookup lookup = new CombinedLookup();
+		lookup.setAccount(new Account());
+		lookup.getAccount().setAccountNumber("1234HHHH1234");
+		lookup.getAccount().setAccountLifeCycleStatus("EF");
+		OverdraftInstruction od = new OverdraftInstruction();
+		od.setOverdraftAccount(new Account());
+		od.getOverdraftAccount().setAccountLifeCycleStatus("EF");
+		od.getOverdraftAccount().setAccountNumber("1234hjkf8943");
+		od.setInstructionLifecycleStatus("EF");
+		od.setEffectiveStart(LocalDateTime.now().minusYears(1));
+		od.setEffectiveEnd(LocalDateTime.now().plusYears(1));
+		lookup.getOverdraftInstructions().add(od);
+		when(debitDao.getAccountAndOverdraft(anyString())).thenReturn(lookup);
+
+		// -------------------
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionUuid(UUID.randomUUID());
+		transaction.setAccountNumber("1234HHHH1234");
+		transaction.setTransactionTypeCode(TransactionResource.REJECTED_TRANSACTION);
+		ReservationResponse a1response = new ReservationResponse(ReservationResponse.INSUFFICIENT_FUNDS, transaction);
+
+		TransactionResource odTransaction = new TransactionResource();
+		odTransaction.setTransactionUuid(UUID.randomUUID());
+		odTransaction.setAccountNumber("1234hjkf8943");
+		odTransaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		ReservationResponse a2response = new ReservationResponse(ReservationResponse.SUCCESS, odTransaction);
+
+		when(dao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(a1response)
+			.thenReturn(a2response);
+
+		// -------------
+		ReserveFundsResponse response = service.reserveFunds(headers, request);
+
+		// -------------
+		verify(debitDao).getAccountAndOverdraft(anyString());
+		verify(debitDao, never()).getAccount(anyString());
+		verify(debitDao, never()).getOverdraftInstructions(anyString());
+		verify(dao, times(2)).recordReservation(any(), any(ReservationRequest.class));
+
+		// -------------
+		assertEquals(ReserveFundsResponse.SUCCESS_OVERDRAFT, response.getStatus());
+		assertEquals(2, response.getTransactions().size());
+		assertSame(odTransaction, response.getTransactions().get(1));
+	}
+
+	@Test
+	void testPostReserveAccountFunds_OD_prefetchUsed() {
+		ConfigProperties config = new ConfigProperties();
+		config.setOverdraftPrefetchEnabled(true);
+		config.setOverdraftPrefetchTaxonomies(Collections.singletonList("7483495"));
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		service.setConfig(config);
+		service.setMeterRegistry(registry);
+		service.setJdbcExecutor(Runnable::run);
+
+		// -----------------
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.AIT_ID, "12345");
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+		headers.put(TraceableRequest.CORRELATION_ID, "273849273498273498");
+
+		// ------------------
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		request.setProtectAgainstOverdraft(true);
+
+		// -------------------
+		Account acct = new Account();
+		acct.setAccountNumber("1234HHHH1234");
+		acct.setAccountLifeCycleStatus("EF");
+		when(debitDao.getAccount(anyString())).thenReturn(acct);
+
+		LinkedList<OverdraftInstruction> odlist = new LinkedList<OverdraftInstruction>();
+		OverdraftInstruction od = new OverdraftInstruction();
+		od.setOverdraftAccount(new Account());
+		od.getOverdraftAccount().setAccountLifeCycleStatus("EF");
+		od.getOverdraftAccount().setAccountNumber("1234hjkf8943");
+		od.setInstructionLifecycleStatus("EF");
+		od.setEffectiveStart(LocalDateTime.now().minusYears(1));
+		od.setEffectiveEnd(LocalDateTime.now().plusYears(1));
+		odlist.add(od);
+		when(debitDao.getOverdraftInstructions(anyString())).thenReturn(odlist);
+
+		// -------------------
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionTypeCode(TransactionResource.REJECTED_TRANSACTION);
+		TransactionResource odTransaction = new TransactionResource();
+		odTransaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		when(dao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(new ReservationResponse(ReservationResponse.INSUFFICIENT_FUNDS, transaction))
+			.thenReturn(new ReservationResponse(ReservationResponse.SUCCESS, odTransaction));
+
+		// -------------
+		ReserveFundsResponse response = service.reserveFunds(headers, request);
+
+		// -------------
+		verify(debitDao, times(1)).getOverdraftInstructions(anyString());
+		assertEquals(ReserveFundsResponse.SUCCESS_OVERDRAFT, response.getStatus());
+		assertEquals(1.0, registry.get("reservefunds.overdraft.prefetch")
+				.tag("outcome", "used").tag("businessTaxonomy", "7483495").counter().count());
+	}
+
+	@Test
+	void testPostReserveAccountFunds_OD_prefetchWasted() {
+		ConfigProperties config = new ConfigProperties();
+		config.setOverdraftPrefetchEnabled(true);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		service.setConfig(config);
+		service.setMeterRegistry(registry);
+		LinkedList<Runnable> queued = new LinkedList<Runnable>();
+		service.setJdbcExecutor(queued::add);
+
+		// -----------------
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+
+		// ------------------
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber("1234HHHH1234");
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		request.setProtectAgainstOverdraft(true);
+
+		// -------------------
+		Account acct = new Account();
+		acct.setAccountNumber("1234HHHH1234");
+		acct.setAccountLifeCycleStatus("EF");
+		when(debitDao.getAccount(anyString())).thenReturn(acct);
+
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		when(dao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(new ReservationResponse(ReservationResponse.SUCCESS, transaction));
+
+		// -------------
+		ReserveFundsResponse response = service.reserveFunds(headers, request);
+		queued.forEach(Runnable::run);
+
+		// -------------
+		verify(debitDao, never()).getOverdraftInstructions(anyString());
+		assertEquals(ReserveFundsResponse.SUCCESS, response.getStatus());
+		assertEquals(1.0, registry.get("reservefunds.overdraft.prefetch")
+				.tag("outcome", "wasted").counter().count());
+	}
 }
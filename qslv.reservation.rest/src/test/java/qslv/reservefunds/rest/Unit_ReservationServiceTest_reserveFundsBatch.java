@@ -0,0 +1,142 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import qslv.common.TraceableRequest;
+import qslv.data.Account;
+import qslv.data.DebitCard;
+import qslv.reservefunds.request.ReserveFundsRequest;
+import qslv.reservefunds.response.ReserveFundsResponse;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+
+@ExtendWith(MockitoExtension.class)
+class Unit_ReservationServiceTest_reserveFundsBatch {
+	@Mock
+	public TransactionDao dao;
+	@Mock 
+	JdbcDao debitDao;
+
+	ReserveFundsService service = new ReserveFundsService();
+
+	@BeforeEach
+	public void setup() {
+		service.setDao(debitDao);
+		service.setTrDao(dao);
+		service.setBatchExecutor(Runnable::run);
+	}
+
+	private ReserveFundsRequest request(String accountNumber, String debitCardNumber) {
+		ReserveFundsRequest request = new ReserveFundsRequest();
+		request.setRequestUUID(UUID.randomUUID());
+		request.setAccountNumber(accountNumber);
+		request.setDebitCardNumber(debitCardNumber);
+		request.setTransactionAmount(27384);
+		request.setTransactionMetaDataJSON("{}");
+		return request;
+	}
+
+	@Test
+	void testReserveFundsBatch_setBasedLookup() {
+		ConfigProperties config = new ConfigProperties();
+		config.setLookupCacheEnabled(true);
+		AccountLookup accountLookup = new AccountLookup();
+		accountLookup.setJdbcDao(debitDao);
+		accountLookup.setConfig(config);
+		accountLookup.setMeterRegistry(new SimpleMeterRegistry());
+		accountLookup.init();
+		service.setAccountLookup(accountLookup);
+
+		HashMap<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "7483495");
+
+		Account good = new Account();
+		good.setAccountNumber("1234HHHH1234");
+		good.setAccountLifeCycleStatus("EF");
+		Account closed = new Account();
+		closed.setAccountNumber("5678HHHH5678");
+		closed.setAccountLifeCycleStatus("CL");
+		HashMap<String, Account> accounts = new HashMap<String, Account>();
+		accounts.put(good.getAccountNumber(), good);
+		accounts.put(closed.getAccountNumber(), closed);
+		when(debitDao.getAccounts(anyCollection())).thenReturn(accounts);
+
+		DebitCard card = new DebitCard();
+		card.setDebitCardNumber("2734827349");
+		card.setDebitCardLifeCycleStatus("EF");
+		card.setAccount(good);
+		when(debitDao.getDebitCardsAndAccounts(anyCollection())).thenReturn(Collections.singletonMap("2734827349", card));
+
+		when(debitDao.getAccount("9999HHHH9999"))
+			.thenThrow(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "0 (!= 1) account_balance rows returned."));
+
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		when(dao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(new ReservationResponse(ReservationResponse.SUCCESS, transaction));
+
+		List<ReserveFundsBatchResult> results = service.reserveFundsBatch(headers, Arrays.asList(
+				request("1234HHHH1234", null),
+				request("5678HHHH5678", null),
+				request(null, "2734827349"),
+				request("9999HHHH9999", null)));
+
+		verify(debitDao).getAccounts(anyCollection());
+		verify(debitDao).getDebitCardsAndAccounts(anyCollection());
+		verify(debitDao, never()).getAccount("1234HHHH1234");
+		verify(debitDao, never()).getDebitCardAndAccount(anyString());
+		verify(dao, times(2)).recordReservation(any(), any(ReservationRequest.class));
+
+		assertEquals(4, results.size());
+		assertEquals(HttpStatus.OK.value(), results.get(0).getStatus());
+		assertEquals(ReserveFundsResponse.SUCCESS, results.get(0).getResponse().getStatus());
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), results.get(1).getStatus());
+		assertEquals(HttpStatus.OK.value(), results.get(2).getStatus());
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), results.get(3).getStatus());
+	}
+
+	@Test
+	void testReserveFundsBatch_replayed() {
+		ConfigProperties config = new ConfigProperties();
+		config.setReplayCacheEnabled(true);
+		ReplayCache replayCache = new ReplayCache();
+		replayCache.setConfig(config);
+		replayCache.setMeterRegistry(new SimpleMeterRegistry());
+		replayCache.init();
+		service.setReplayCache(replayCache);
+
+		Account good = new Account();
+		good.setAccountNumber("1234HHHH1234");
+		good.setAccountLifeCycleStatus("EF");
+		when(debitDao.getAccount("1234HHHH1234")).thenReturn(good);
+		TransactionResource transaction = new TransactionResource();
+		transaction.setTransactionTypeCode(TransactionResource.RESERVATION);
+		when(dao.recordReservation(any(), any(ReservationRequest.class)))
+			.thenReturn(new ReservationResponse(ReservationResponse.SUCCESS, transaction));
+
+		ReserveFundsRequest request = request("1234HHHH1234", null);
+		List<ReserveFundsBatchResult> first = service.reserveFundsBatch(new HashMap<String, String>(), Arrays.asList(request));
+		List<ReserveFundsBatchResult> again = service.reserveFundsBatch(new HashMap<String, String>(), Arrays.asList(request));
+
+		verify(dao, times(1)).recordReservation(any(), any(ReservationRequest.class));
+		assertSame(first.get(0).getResponse(), again.get(0).getResponse());
+	}
+}
@@ -0,0 +1,88 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class Unit_ServerTimingAdvice {
+	ConfigProperties config = new ConfigProperties();
+	ServerTimingAdvice advice = new ServerTimingAdvice();
+	MockHttpServletRequest servletRequest = new MockHttpServletRequest("POST", "/ReserveFunds");
+	MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+	@BeforeEach
+	public void init() {
+		config.setServerTimingEnabled(true);
+		advice.setConfig(config);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(servletRequest));
+	}
+
+	@AfterEach
+	public void teardown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	private StageTimings timings() {
+		StageTimings timings = new StageTimings();
+		timings.record(Stage.LOOKUP, 1204567L);
+		timings.record(Stage.RESERVATION, 5000000L);
+		timings.record(Stage.OVERDRAFT_ATTEMPT, 42000L);
+		return timings;
+	}
+
+	private void write() {
+		ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+		advice.beforeBodyWrite("body", null, MediaType.APPLICATION_JSON, null, new ServletServerHttpRequest(servletRequest), response);
+		response.flush();
+	}
+
+	@Test
+	void test_format() {
+		assertEquals("lookup;dur=1.204, reservation;dur=5.000, overdraftAttempt;dur=0.042", ServerTimingAdvice.format(timings()));
+	}
+
+	@Test
+	void test_requestedByHeader() {
+		ServerTimingAdvice.expose(timings());
+		servletRequest.addHeader(ServerTimingAdvice.REQUEST_HEADER, "true");
+
+		write();
+
+		assertEquals("lookup;dur=1.204, reservation;dur=5.000, overdraftAttempt;dur=0.042",
+				servletResponse.getHeader(ServerTimingAdvice.SERVER_TIMING));
+	}
+
+	@Test
+	void test_notRequested_notSampled() {
+		ServerTimingAdvice.expose(timings());
+
+		write();
+
+		assertNull(servletResponse.getHeader(ServerTimingAdvice.SERVER_TIMING));
+	}
+
+	@Test
+	void test_sampled() {
+		config.setServerTimingSampleRate(1.0);
+		ServerTimingAdvice.expose(timings());
+
+		write();
+
+		assertNotNull(servletResponse.getHeader(ServerTimingAdvice.SERVER_TIMING));
+	}
+
+	@Test
+	void test_disabled() {
+		config.setServerTimingEnabled(false);
+		assertFalse(advice.supports(null, null));
+	}
+}
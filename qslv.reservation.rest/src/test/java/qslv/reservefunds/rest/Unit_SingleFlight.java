@@ -0,0 +1,118 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class Unit_SingleFlight {
+	ExecutorService callers = Executors.newFixedThreadPool(4);
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	SingleFlight<String, String> flights = new SingleFlight<String, String>("test", registry);
+	AtomicInteger loads = new AtomicInteger();
+	CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	public void teardown() {
+		callers.shutdownNow();
+	}
+
+	private String blockingLoad(String key) {
+		loads.incrementAndGet();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return "value-" + key;
+	}
+
+	private double count(String result) {
+		return registry.get("reservefunds.lookup.singleflight").tag("query", "test").tag("result", result).counter().count();
+	}
+
+	@Test
+	void test_execute_concurrentCallersCollapse() throws Exception {
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("a", this::blockingLoad), callers);
+		while (loads.get() == 0) {
+			Thread.sleep(1);
+		}
+		CompletableFuture<String> follower1 = CompletableFuture.supplyAsync(() -> flights.execute("a", this::blockingLoad), callers);
+		CompletableFuture<String> follower2 = CompletableFuture.supplyAsync(() -> flights.execute("a", this::blockingLoad), callers);
+		while (count("collapsed") < 2.0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		assertEquals("value-a", leader.get(5, TimeUnit.SECONDS));
+		assertEquals("value-a", follower1.get(5, TimeUnit.SECONDS));
+		assertEquals("value-a", follower2.get(5, TimeUnit.SECONDS));
+		assertEquals(1, loads.get());
+		assertEquals(1.0, count("leader"));
+	}
+
+	@Test
+	void test_execute_notRetainedAfterCompletion() {
+		release.countDown();
+
+		flights.execute("a", this::blockingLoad);
+		flights.execute("a", this::blockingLoad);
+
+		assertEquals(2, loads.get());
+		assertEquals(0.0, count("collapsed"));
+	}
+
+	@Test
+	void test_execute_failureShared() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("a", key -> {
+			started.countDown();
+			blockingLoad(key);
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "db down");
+		}), callers);
+		started.await(5, TimeUnit.SECONDS);
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flights.execute("a", this::blockingLoad), callers);
+		while (count("collapsed") < 1.0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof ResponseStatusException);
+		assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void test_execute_errorReleasesFollowers() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("a", key -> {
+			started.countDown();
+			blockingLoad(key);
+			throw new AssertionError("loader failed");
+		}), callers);
+		started.await(5, TimeUnit.SECONDS);
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flights.execute("a", this::blockingLoad), callers);
+		while (count("collapsed") < 1.0) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+		assertTrue(ex.getCause() instanceof AssertionError);
+		assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+		assertEquals("value-a", flights.execute("a", this::blockingLoad));
+	}
+}
@@ -0,0 +1,130 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+class Unit_SliAggregator {
+	ConfigProperties config = new ConfigProperties();
+	SliAggregator aggregator = new SliAggregator();
+
+	@BeforeEach
+	public void init() {
+		config.setSliMode(SliAggregator.AGGREGATE);
+		config.setSliLogSampleRate(0.0);
+		aggregator.setConfig(config);
+		aggregator.init();
+	}
+
+	@Test
+	void test_logMode_logsEveryCall() {
+		config.setSliMode(SliAggregator.LOG);
+		SliAggregator logging = new SliAggregator();
+		logging.setConfig(config);
+		logging.init();
+
+		assertFalse(logging.isAggregating());
+		assertTrue(logging.logCall());
+	}
+
+	@Test
+	void test_aggregateMode_sampledCalls() {
+		assertTrue(aggregator.isAggregating());
+		assertFalse(aggregator.logCall());
+		config.setSliLogSampleRate(1.0);
+		assertTrue(aggregator.logCall());
+	}
+
+	@Test
+	void test_window_drainResets() {
+		SliAggregator.Window window = new SliAggregator.Window("POST/ReserveFunds", "27834");
+		for (int i = 1; i <= 100; i++) {
+			window.record(TimeUnit.MILLISECONDS.toNanos(i), i > 98);
+		}
+
+		Histogram histogram = window.drain();
+		assertEquals(100L, histogram.getTotalCount());
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(50), histogram.getValueAtPercentile(50.0), TimeUnit.MILLISECONDS.toNanos(1));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxValue(), TimeUnit.MILLISECONDS.toNanos(1));
+
+		assertEquals(0L, window.drain().getTotalCount());
+	}
+
+	@Test
+	void test_window_concurrentWriters() throws Exception {
+		final SliAggregator.Window window = new SliAggregator.Window("jdbc::AccountDB", "27834");
+		final CountDownLatch start = new CountDownLatch(1);
+		ArrayList<Thread> writers = new ArrayList<Thread>();
+		for (int t = 0; t < 8; t++) {
+			Thread writer = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				for (int i = 0; i < 10000; i++) {
+					window.record(1000L + i, false);
+				}
+			});
+			writer.start();
+			writers.add(writer);
+		}
+		start.countDown();
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		assertEquals(80000L, window.drain().getTotalCount());
+	}
+
+	@Test
+	void test_record_flush() {
+		aggregator.record("POST/ReserveFunds", TimeUnit.MILLISECONDS.toNanos(3), false);
+		aggregator.record("POST/ReserveFunds", TimeUnit.MILLISECONDS.toNanos(4), true);
+
+		aggregator.flush();
+		aggregator.flush();
+	}
+
+	@Test
+	void test_complete() {
+		aggregator.complete("POST/ReserveFunds/async", TimeUnit.MILLISECONDS.toNanos(3), false);
+		assertEquals(1L, aggregator.window("POST/ReserveFunds/async").drain().getTotalCount());
+
+		config.setSliMode(SliAggregator.LOG);
+		SliAggregator logging = new SliAggregator();
+		logging.setConfig(config);
+		logging.init();
+		logging.complete("POST/ReserveFunds/async", TimeUnit.MILLISECONDS.toNanos(3), false);
+		assertNull(logging.window("POST/ReserveFunds/async"));
+	}
+
+	@Test
+	void test_aggregateMode_silencesAspectLoggers() {
+		LoggingSystem loggingSystem = mock(LoggingSystem.class);
+		SliAggregator aggregating = new SliAggregator();
+		aggregating.setConfig(config);
+		aggregating.setLoggingSystem(loggingSystem);
+		aggregating.init();
+
+		verify(loggingSystem).setLogLevel("qslv.util", LogLevel.WARN);
+
+		config.setSliMode(SliAggregator.LOG);
+		LoggingSystem untouched = mock(LoggingSystem.class);
+		SliAggregator logging = new SliAggregator();
+		logging.setConfig(config);
+		logging.setLoggingSystem(untouched);
+		logging.init();
+
+		verifyNoInteractions(untouched);
+	}
+}
@@ -0,0 +1,77 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import qslv.reservefunds.response.ReserveFundsResponse;
+
+class Unit_StageMetrics {
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	StageMetrics stageMetrics = new StageMetrics();
+
+	@BeforeEach
+	public void init() {
+		stageMetrics.setMeterRegistry(registry);
+		stageMetrics.init();
+	}
+
+	@Test
+	void test_record_taggedByStageAndOutcome() {
+		StageTimings timings = StageTimings.begin();
+		try {
+			StageTimings.current().record(Stage.VALIDATION, TimeUnit.MICROSECONDS.toNanos(200));
+			StageTimings.current().record(Stage.RESERVATION, TimeUnit.MILLISECONDS.toNanos(5));
+			StageTimings.current().record(Stage.OVERDRAFT_ATTEMPT, TimeUnit.MILLISECONDS.toNanos(4));
+			StageTimings.current().record(Stage.OVERDRAFT_ATTEMPT, TimeUnit.MILLISECONDS.toNanos(6));
+		} finally {
+			StageTimings.end();
+		}
+		stageMetrics.record(timings, StageMetrics.SUCCESS_OVERDRAFT);
+
+		assertEquals(1L, registry.get("reservefunds.stage").tag("stage", "validation").tag("outcome", "SUCCESS_OVERDRAFT").timer().count());
+		assertEquals(5.0, registry.get("reservefunds.stage").tag("stage", "reservation").tag("outcome", "SUCCESS_OVERDRAFT").timer()
+				.totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(2L, registry.get("reservefunds.stage").tag("stage", "overdraftAttempt").tag("outcome", "SUCCESS_OVERDRAFT").timer().count());
+		assertEquals(0L, registry.get("reservefunds.stage").tag("stage", "reservation").tag("outcome", "SUCCESS").timer().count());
+	}
+
+	@Test
+	void test_current_unboundRecordsNothing() {
+		StageTimings.current().record(Stage.LOOKUP, 1000L);
+		assertEquals(0, StageTimings.current().size());
+
+		StageTimings timings = StageTimings.begin();
+		StageTimings.current().record(Stage.LOOKUP, 1000L);
+		StageTimings.end();
+		assertEquals(1, timings.size());
+		assertEquals(Stage.LOOKUP, timings.stage(0));
+		assertEquals(0, StageTimings.current().size());
+	}
+
+	@Test
+	void test_outcome() {
+		ReserveFundsResponse response = new ReserveFundsResponse();
+		response.setStatus(ReserveFundsResponse.SUCCESS);
+		assertEquals(StageMetrics.SUCCESS, StageMetrics.outcome(response));
+		response.setStatus(ReserveFundsResponse.SUCCESS_OVERDRAFT);
+		assertEquals(StageMetrics.SUCCESS_OVERDRAFT, StageMetrics.outcome(response));
+		response.setStatus(ReserveFundsResponse.INSUFFICIENT_FUNDS);
+		assertEquals(StageMetrics.INSUFFICIENT_FUNDS, StageMetrics.outcome(response));
+	}
+
+	@Test
+	void test_recordRetries() {
+		stageMetrics.recordRetries(true, 0);
+		stageMetrics.recordRetries(true, 2);
+		stageMetrics.recordRetries(false, 3);
+
+		assertEquals(2L, registry.get("reservefunds.remote.retries").tag("outcome", "success").summary().count());
+		assertEquals(2.0, registry.get("reservefunds.remote.retries").tag("outcome", "success").summary().totalAmount(), 0.001);
+		assertEquals(3.0, registry.get("reservefunds.remote.retries").tag("outcome", "error").summary().totalAmount(), 0.001);
+	}
+}
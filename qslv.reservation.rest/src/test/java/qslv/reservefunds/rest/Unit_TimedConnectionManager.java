@@ -0,0 +1,57 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class Unit_TimedConnectionManager {
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	TimedConnectionManager connectionManager;
+
+	@BeforeEach
+	public void init() {
+		connectionManager = new TimedConnectionManager(60000L, registry);
+		connectionManager.setMaxTotal(25);
+		connectionManager.setDefaultMaxPerRoute(10);
+	}
+
+	@AfterEach
+	public void teardown() {
+		connectionManager.close();
+	}
+
+	@Test
+	void test_gauges_registered() {
+		assertEquals(25.0, registry.get("reservefunds.rest.pool.max").gauge().value());
+		assertEquals(0.0, registry.get("reservefunds.rest.pool.leased").gauge().value());
+		assertEquals(0.0, registry.get("reservefunds.rest.pool.pending").gauge().value());
+		assertEquals(0.0, registry.get("reservefunds.rest.pool.available").gauge().value());
+		assertNotNull(registry.get("reservefunds.rest.pool.lease.wait").timer());
+	}
+
+	@Test
+	void test_leasePermits_bound() throws Exception {
+		connectionManager.setLeasePermits(1);
+		HttpRoute route = new HttpRoute(new HttpHost("localhost", 9091));
+
+		HttpClientConnection leased = connectionManager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+		assertThrows(ConnectionPoolTimeoutException.class,
+				() -> connectionManager.requestConnection(route, null).get(50, TimeUnit.MILLISECONDS));
+		assertEquals(1.0, registry.get("reservefunds.rest.pool.leased").gauge().value());
+
+		connectionManager.releaseConnection(leased, null, 0, TimeUnit.MILLISECONDS);
+		HttpClientConnection next = connectionManager.requestConnection(route, null).get(100, TimeUnit.MILLISECONDS);
+		assertNotNull(next);
+		connectionManager.releaseConnection(next, null, 0, TimeUnit.MILLISECONDS);
+	}
+}
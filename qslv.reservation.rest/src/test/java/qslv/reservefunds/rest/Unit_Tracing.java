@@ -0,0 +1,146 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import qslv.common.TraceableRequest;
+
+class Unit_Tracing {
+	InMemorySpanExporter exporter = InMemorySpanExporter.create();
+	ConfigProperties config = new ConfigProperties();
+	TailSamplingSpanProcessor processor;
+	SdkTracerProvider provider;
+	Tracer tracer;
+
+	@BeforeEach
+	public void init() {
+		build(0.0);
+	}
+
+	private void build(double sampleRate) {
+		config.setTracingSampleRate(sampleRate);
+		config.setTracingTailSamplingEnabled(true);
+		processor = new TailSamplingSpanProcessor(exporter, SimpleSpanProcessor.create(exporter), Runnable::run, 50, 60000,
+				TimeUnit.MILLISECONDS, 2);
+		provider = SdkTracerProvider.builder().setSampler(TracingConfig.sampler(config)).addSpanProcessor(processor).build();
+		tracer = provider.get(Tracing.INSTRUMENTATION);
+	}
+
+	@AfterEach
+	public void teardown() {
+		provider.close();
+	}
+
+	private void trace(long rootNanos, boolean childError) {
+		Span root = tracer.spanBuilder("POST /ReserveFunds").setStartTimestamp(0L, TimeUnit.NANOSECONDS).startSpan();
+		try (Scope scope = root.makeCurrent()) {
+			Span child = tracer.spanBuilder("jdbc::getAccount").startSpan();
+			if (childError) {
+				child.setStatus(StatusCode.ERROR);
+			}
+			child.end();
+		}
+		root.end(rootNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Test
+	void test_tail_fastTraceDropped() {
+		trace(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+		assertTrue(exporter.getFinishedSpanItems().isEmpty());
+		assertEquals(0, processor.pendingTraces());
+	}
+
+	@Test
+	void test_tail_slowTraceKept() {
+		trace(TimeUnit.MILLISECONDS.toNanos(80), false);
+
+		List<SpanData> spans = exporter.getFinishedSpanItems();
+		assertEquals(2, spans.size());
+		assertEquals(spans.get(0).getTraceId(), spans.get(1).getTraceId());
+		assertEquals("POST /ReserveFunds", spans.get(1).getName());
+	}
+
+	@Test
+	void test_tail_lateChildDropped() {
+		Span root = tracer.spanBuilder("POST /ReserveFunds").setStartTimestamp(0L, TimeUnit.NANOSECONDS).startSpan();
+		Span child;
+		try (Scope scope = root.makeCurrent()) {
+			child = tracer.spanBuilder("transactionService::recordReservation").startSpan();
+		}
+		root.end(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.NANOSECONDS);
+		child.end();
+
+		assertTrue(exporter.getFinishedSpanItems().isEmpty());
+		assertEquals(0, processor.pendingTraces());
+	}
+
+	@Test
+	void test_tail_errorTraceKept() {
+		trace(TimeUnit.MILLISECONDS.toNanos(10), true);
+
+		assertEquals(2, exporter.getFinishedSpanItems().size());
+	}
+
+	@Test
+	void test_head_sampledExportedDirectly() {
+		provider.close();
+		exporter = InMemorySpanExporter.create();
+		build(1.0);
+
+		trace(TimeUnit.MILLISECONDS.toNanos(10), false);
+
+		assertEquals(2, exporter.getFinishedSpanItems().size());
+		assertTrue(exporter.getFinishedSpanItems().get(0).getSpanContext().isSampled());
+	}
+
+	@Test
+	void test_propagation_roundTrip() {
+		Map<String, String> callingHeaders = new HashMap<String, String>();
+		callingHeaders.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "78237492834");
+		callingHeaders.put(TraceableRequest.CORRELATION_ID, "234234234234234234");
+
+		Span root = tracer.spanBuilder("POST /ReserveFunds").startSpan();
+		HttpHeaders headers;
+		try (Scope scope = root.makeCurrent()) {
+			headers = TransactionDao.buildHeaders(config, callingHeaders);
+		} finally {
+			root.end();
+		}
+		assertNotNull(headers.getFirst("traceparent"));
+
+		Map<String, String> received = new HashMap<String, String>();
+		received.put("Traceparent", headers.getFirst("traceparent"));
+		SpanContext parent = Span.fromContext(Tracing.extract(received)).getSpanContext();
+		assertTrue(parent.isRemote());
+		assertEquals(root.getSpanContext().getTraceId(), parent.getTraceId());
+		assertEquals(root.getSpanContext().getSpanId(), parent.getSpanId());
+	}
+
+	@Test
+	void test_noContext_noHeader() {
+		HttpHeaders headers = TransactionDao.buildHeaders(config, new HashMap<String, String>());
+		assertNull(headers.getFirst("traceparent"));
+		assertFalse(Span.fromContext(Tracing.extract(new HashMap<String, String>())).getSpanContext().isValid());
+		assertSame(Context.root(), Context.current());
+	}
+}
@@ -0,0 +1,139 @@
+package qslv.reservefunds.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import qslv.common.TimedResponse;
+import qslv.common.TraceableRequest;
+import qslv.transaction.request.ReservationRequest;
+import qslv.transaction.resource.TransactionResource;
+import qslv.transaction.response.ReservationResponse;
+import reactor.core.publisher.Mono;
+
+class Unit_TransactionDao_async {
+	private static String URL="http://localhost/Reservation";
+
+	TransactionDao transactionDao = new TransactionDao();
+	ConfigProperties config = new ConfigProperties();
+	ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	AtomicInteger calls = new AtomicInteger();
+	String responseJson;
+
+	@BeforeEach
+	public void init() throws Exception {
+		config.setReservationUrl(URL);
+		config.setRestAttempts(3);
+		config.setRestBackoffDelay(1);
+		config.setRestBackoffDelayMax(5);
+		transactionDao.setConfig(config);
+		transactionDao.setRetryScheduler(scheduler);
+
+		TimedResponse<ReservationResponse> rr = new TimedResponse<ReservationResponse>();
+		rr.setServiceTimeElapsed(345890L);
+		rr.setPayload(new ReservationResponse(ReservationResponse.SUCCESS, new TransactionResource()));
+		responseJson = new ObjectMapper().writeValueAsString(rr);
+	}
+
+	@AfterEach
+	public void teardown() {
+		scheduler.shutdownNow();
+	}
+
+	private void failTimes(int failures) {
+		transactionDao.setWebClient(WebClient.builder().exchangeFunction(request -> {
+			if (calls.incrementAndGet() <= failures) {
+				return Mono.error(new IOException("Connection refused"));
+			}
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+					.body(responseJson)
+					.build());
+		}).build());
+	}
+
+	private Map<String, String> headers() {
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put(TraceableRequest.BUSINESS_TAXONOMY_ID, "78237492834");
+		headers.put(TraceableRequest.CORRELATION_ID, "234234234234234234");
+		return headers;
+	}
+
+	private ReservationRequest request() {
+		ReservationRequest request = new ReservationRequest();
+		request.setAccountNumber("237489237492");
+		request.setDebitCardNumber("1234HHHH1234JJJJ");
+		request.setRequestUuid(UUID.randomUUID());
+		request.setTransactionAmount(-27384);
+		request.setTransactionMetaDataJson("{}");
+		return request;
+	}
+
+	@Test
+	void test_recordReservationAsync_success() throws Exception {
+		failTimes(0);
+
+		ReservationResponse callresult = transactionDao.recordReservationAsync(headers(), request()).get(5, TimeUnit.SECONDS);
+		assertEquals(ReservationResponse.SUCCESS, callresult.getStatus());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void test_recordReservationAsync_failsTwice() throws Exception {
+		failTimes(2);
+
+		ReservationResponse callresult = transactionDao.recordReservationAsync(headers(), request()).get(5, TimeUnit.SECONDS);
+		assertEquals(ReservationResponse.SUCCESS, callresult.getStatus());
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void test_recordReservationAsync_failsThrice() {
+		failTimes(3);
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> {
+			transactionDao.recordReservationAsync(headers(), request()).get(5, TimeUnit.SECONDS);
+		});
+		assertTrue(ex.getCause() instanceof ResourceAccessException);
+		assertEquals(3, calls.get());
+	}
+
+	@Test
+	void test_recordReservationAsync_clientErrorNotRetried() {
+		transactionDao.setWebClient(WebClient.builder().exchangeFunction(request -> {
+			calls.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.UNPROCESSABLE_ENTITY)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+					.body("{}")
+					.build());
+		}).build());
+
+		ExecutionException ex = assertThrows(ExecutionException.class, () -> {
+			transactionDao.recordReservationAsync(headers(), request()).get(5, TimeUnit.SECONDS);
+		});
+		assertTrue(ex.getCause() instanceof WebClientResponseException);
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ((WebClientResponseException) ex.getCause()).getStatusCode());
+		assertEquals(1, calls.get());
+	}
+}